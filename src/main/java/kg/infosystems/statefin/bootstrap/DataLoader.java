@@ -6,6 +6,7 @@ import kg.infosystems.statefin.entity.User;
 import kg.infosystems.statefin.repository.PermissionRepository;
 import kg.infosystems.statefin.repository.RoleRepository;
 import kg.infosystems.statefin.repository.UserRepository;
+import kg.infosystems.statefin.service.EffectivePermissionService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
@@ -13,8 +14,13 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Component
 @RequiredArgsConstructor
@@ -24,6 +30,7 @@ public class DataLoader implements CommandLineRunner {
     private final RoleRepository roleRepository;
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final EffectivePermissionService effectivePermissionService;
 
     @Value("${app.initial-data.load-on-startup:false}")
     private boolean loadInitialData;
@@ -65,6 +72,7 @@ public class DataLoader implements CommandLineRunner {
             createPermissions();
             createRoles();
             createUsers();
+            effectivePermissionService.rebuild();
         } catch (Exception e) {
             throw new RuntimeException("Failed to load initial data", e);
         }
@@ -83,40 +91,50 @@ public class DataLoader implements CommandLineRunner {
                 new PermissionData("PERMISSION_WRITE", "Create and update permissions", "PERMISSION", "WRITE"),
                 new PermissionData("PERMISSION_DELETE", "Delete permissions", "PERMISSION", "DELETE")
         );
+        Set<String> existing = permissionRepository.findAll().stream()
+                .map(Permission::getName)
+                .collect(Collectors.toSet());
+        List<Permission> missing = new ArrayList<>();
         for (PermissionData permData : permissions) {
-            if (!permissionRepository.existsByName(permData.name)) {
-                Permission permission = Permission.builder()
+            if (!existing.contains(permData.name)) {
+                missing.add(Permission.builder()
                         .name(permData.name)
                         .description(permData.description)
                         .resource(permData.resource)
                         .action(permData.action)
                         .active(true)
-                        .build();
-                permissionRepository.save(permission);
+                        .build());
             }
         }
+        permissionRepository.saveAll(missing);
     }
 
     private void createRoles() {
-        if (!roleRepository.existsByName("USER")) {
+        Map<String, Permission> permissionsByName = permissionRepository.findAll().stream()
+                .collect(Collectors.toMap(Permission::getName, Function.identity()));
+        Set<String> existing = roleRepository.findAll().stream()
+                .map(Role::getName)
+                .collect(Collectors.toSet());
+        List<Role> missing = new ArrayList<>();
+        if (!existing.contains("USER")) {
             Role userRole = Role.builder()
                     .name("USER")
                     .description("Standard user with basic permissions")
                     .active(true)
                     .build();
-            roleRepository.save(userRole);
+            missing.add(userRole);
         }
-        if (!roleRepository.existsByName("MANAGER")) {
+        if (!existing.contains("MANAGER")) {
             Role managerRole = Role.builder()
                     .name("MANAGER")
                     .description("Manager with user management permissions")
                     .active(true)
                     .build();
             List<String> managerPermissions = Arrays.asList("USER_READ", "USER_WRITE");
-            assignPermissionsToRole(managerRole, managerPermissions);
-            roleRepository.save(managerRole);
+            assignPermissionsToRole(managerRole, managerPermissions, permissionsByName);
+            missing.add(managerRole);
         }
-        if (!roleRepository.existsByName("ADMIN")) {
+        if (!existing.contains("ADMIN")) {
             Role adminRole = Role.builder()
                     .name("ADMIN")
                     .description("Administrator with full permissions")
@@ -127,19 +145,28 @@ public class DataLoader implements CommandLineRunner {
                     "ROLE_READ", "ROLE_WRITE", "ROLE_DELETE", "ROLE_MANAGE",
                     "PERMISSION_READ", "PERMISSION_WRITE", "PERMISSION_DELETE"
             );
-            assignPermissionsToRole(adminRole, adminPermissions);
-            roleRepository.save(adminRole);
+            assignPermissionsToRole(adminRole, adminPermissions, permissionsByName);
+            missing.add(adminRole);
         }
+        roleRepository.saveAll(missing);
     }
 
-    private void assignPermissionsToRole(Role role, List<String> permissionNames) {
+    private void assignPermissionsToRole(Role role, List<String> permissionNames, Map<String, Permission> permissionsByName) {
         for (String permissionName : permissionNames) {
-            permissionRepository.findByName(permissionName).ifPresent(role::addPermission);
+            Permission permission = permissionsByName.get(permissionName);
+            if (permission != null) {
+                role.addPermission(permission);
+            }
         }
     }
 
     private void createUsers() {
-        if (!userRepository.existsByUsername(adminUsername)) {
+        Map<String, Role> rolesByName = roleRepository.findAll().stream()
+                .collect(Collectors.toMap(Role::getName, Function.identity()));
+        Set<String> existing = userRepository.findExistingUsernames(
+                List.of(User.normalize(adminUsername), User.normalize(managerUsername), User.normalize(userUsername)));
+        List<User> missing = new ArrayList<>();
+        if (!existing.contains(User.normalize(adminUsername))) {
             User admin = User.builder()
                     .username(adminUsername)
                     .email(adminEmail)
@@ -148,10 +175,10 @@ public class DataLoader implements CommandLineRunner {
                     .lastName("Administrator")
                     .active(true)
                     .build();
-            roleRepository.findByName("ADMIN").ifPresent(admin::addRole);
-            userRepository.save(admin);
+            addRole(admin, rolesByName.get("ADMIN"));
+            missing.add(admin);
         }
-        if (!userRepository.existsByUsername(managerUsername)) {
+        if (!existing.contains(User.normalize(managerUsername))) {
             User manager = User.builder()
                     .username(managerUsername)
                     .email(managerEmail)
@@ -160,10 +187,10 @@ public class DataLoader implements CommandLineRunner {
                     .lastName("Manager")
                     .active(true)
                     .build();
-            roleRepository.findByName("MANAGER").ifPresent(manager::addRole);
-            userRepository.save(manager);
+            addRole(manager, rolesByName.get("MANAGER"));
+            missing.add(manager);
         }
-        if (!userRepository.existsByUsername(userUsername)) {
+        if (!existing.contains(User.normalize(userUsername))) {
             User user = User.builder()
                     .username(userUsername)
                     .email(userEmail)
@@ -172,8 +199,15 @@ public class DataLoader implements CommandLineRunner {
                     .lastName("User")
                     .active(true)
                     .build();
-            roleRepository.findByName("USER").ifPresent(user::addRole);
-            userRepository.save(user);
+            addRole(user, rolesByName.get("USER"));
+            missing.add(user);
+        }
+        userRepository.saveAll(missing);
+    }
+
+    private static void addRole(User user, Role role) {
+        if (role != null) {
+            user.addRole(role);
         }
     }
 
@@ -0,0 +1,47 @@
+package kg.infosystems.statefin.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Local caches for read responses of the user, role and permission services. Entries are evicted by the services'
+ * write methods; the cache manager is transaction-aware, so evictions take effect after commit. Statistics are
+ * recorded and published as {@code cache.*} meters.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final String USERS_BY_ID = "users-by-id";
+    public static final String USERS_BY_USERNAME = "users-by-username";
+    public static final String ROLES_BY_ID = "roles-by-id";
+    public static final String ROLES_BY_NAME = "roles-by-name";
+    public static final String PERMISSION_RESOURCES = "permission-resources";
+    public static final String PERMISSION_ACTIONS = "permission-actions";
+
+    static final List<String> CACHES = List.of(USERS_BY_ID, USERS_BY_USERNAME, ROLES_BY_ID, ROLES_BY_NAME,
+            PERMISSION_RESOURCES, PERMISSION_ACTIONS);
+
+    @Bean
+    public CacheManager cacheManager(@Value("${app.response-cache.maximum-size:10000}") long maximumSize,
+                                     @Value("${app.response-cache.expire-after-write:10m}") Duration expireAfterWrite) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        cacheManager.setCaffeine(Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats());
+        cacheManager.setAllowNullValues(false);
+        cacheManager.setCacheNames(CACHES);
+        return new TransactionAwareCacheManagerProxy(cacheManager);
+    }
+
+}
@@ -0,0 +1,49 @@
+package kg.infosystems.statefin.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.HibernateMetrics;
+import org.hibernate.stat.Statistics;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Publishes Hibernate statistics as {@code hibernate.*} meters, including second-level cache requests per region,
+ * plus a {@code hibernate.second.level.cache.hit.ratio} gauge so the ratio is readable from /actuator/metrics.
+ * The meters stay at zero unless {@code hibernate.generate_statistics} is enabled.
+ */
+@Configuration
+public class HibernateMetricsConfig {
+
+    private static final String SESSION_FACTORY_NAME = "entityManagerFactory";
+
+    @Bean
+    public MeterBinder hibernateMetrics(EntityManagerFactory entityManagerFactory) {
+        return new HibernateMetrics(entityManagerFactory.unwrap(SessionFactory.class), SESSION_FACTORY_NAME, Tags.empty());
+    }
+
+    @Bean
+    public MeterBinder hibernateCacheHitRatio(EntityManagerFactory entityManagerFactory) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        return registry -> {
+            for (String region : statistics.getSecondLevelCacheRegionNames()) {
+                Gauge.builder("hibernate.second.level.cache.hit.ratio", statistics, stats -> hitRatio(stats, region))
+                        .tags("entityManagerFactory", SESSION_FACTORY_NAME, "region", region)
+                        .description("Share of second-level cache lookups answered from the cache")
+                        .register(registry);
+            }
+        };
+    }
+
+    private static double hitRatio(Statistics statistics, String region) {
+        CacheRegionStatistics regionStatistics = statistics.getDomainDataRegionStatistics(region);
+        long hits = regionStatistics.getHitCount();
+        long requests = hits + regionStatistics.getMissCount();
+        return requests == 0 ? 0.0 : (double) hits / requests;
+    }
+
+}
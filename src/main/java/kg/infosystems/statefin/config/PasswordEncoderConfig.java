@@ -0,0 +1,54 @@
+package kg.infosystems.statefin.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import kg.infosystems.statefin.security.BoundedPasswordEncoder;
+import kg.infosystems.statefin.security.PasswordEncoders;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+public class PasswordEncoderConfig {
+
+    @Value("${app.security.password-hashing.encoding-id:bcrypt}")
+    private String encodingId;
+
+    @Value("${app.security.password-hashing.bcrypt-strength:0}")
+    private int bcryptStrength;
+
+    @Value("${app.security.password-hashing.target-latency:250ms}")
+    private Duration targetLatency;
+
+    @Value("${app.security.password-hashing.min-strength:10}")
+    private int minStrength;
+
+    @Value("${app.security.password-hashing.max-strength:14}")
+    private int maxStrength;
+
+    @Value("${app.security.password-hashing.pool-size:0}")
+    private int poolSize;
+
+    @Value("${app.security.password-hashing.queue-capacity:64}")
+    private int queueCapacity;
+
+    @Value("${app.security.password-hashing.wait-timeout:5s}")
+    private Duration waitTimeout;
+
+    @Value("${app.security.password-hashing.retry-after:1s}")
+    private Duration retryAfter;
+
+    @Bean
+    public BoundedPasswordEncoder passwordEncoder(MeterRegistry meterRegistry) {
+        int strength = bcryptStrength > 0
+                ? bcryptStrength
+                : PasswordEncoders.calibrateBCryptStrength(targetLatency, minStrength, maxStrength);
+        Gauge.builder("password.hash.bcrypt.strength", () -> strength).register(meterRegistry);
+
+        return new BoundedPasswordEncoder(PasswordEncoders.delegating(encodingId, strength), meterRegistry,
+                poolSize, queueCapacity, waitTimeout, retryAfter);
+    }
+
+}
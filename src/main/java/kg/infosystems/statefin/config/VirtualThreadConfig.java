@@ -0,0 +1,41 @@
+package kg.infosystems.statefin.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Active when {@code spring.threads.virtual.enabled=true}; Spring Boot then serves Tomcat requests and runs the
+ * application task executor and scheduler on virtual threads. The password hashing pool keeps platform threads on
+ * purpose, as BCrypt is CPU bound.
+ */
+@Configuration
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadConfig {
+
+    @Bean
+    static BeanPostProcessor boundedConnectionAcquisition(Environment environment) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource dataSource) || bean instanceof BoundedAcquisitionDataSource) {
+                    return bean;
+                }
+                int maxAcquisitions = environment.getProperty("app.datasource.max-concurrent-acquisitions", Integer.class, 0);
+                if (maxAcquisitions <= 0) {
+                    maxAcquisitions = dataSource instanceof HikariDataSource hikari ? hikari.getMaximumPoolSize() * 2 : 20;
+                }
+                Duration acquireTimeout = environment.getProperty("app.datasource.acquire-timeout", Duration.class, Duration.ofSeconds(2));
+                return new BoundedAcquisitionDataSource(dataSource, maxAcquisitions, acquireTimeout);
+            }
+        };
+    }
+
+}
@@ -1,15 +1,19 @@
 package kg.infosystems.statefin.controller;
 
 import kg.infosystems.statefin.dto.request.LoginRequest;
+import kg.infosystems.statefin.dto.request.LogoutRequest;
 import kg.infosystems.statefin.dto.request.RefreshTokenRequest;
 import kg.infosystems.statefin.dto.request.UserRegistrationRequest;
 import kg.infosystems.statefin.dto.response.ApiResponse;
 import kg.infosystems.statefin.dto.response.LoginResponse;
 import kg.infosystems.statefin.dto.response.UserResponse;
+import kg.infosystems.statefin.exception.InvalidTokenException;
 import kg.infosystems.statefin.service.AuthService;
 import kg.infosystems.statefin.service.UserService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -23,8 +27,9 @@ public class AuthController {
     private final UserService userService;
 
     @PostMapping("/login")
-    public ResponseEntity<ApiResponse<LoginResponse>> login(@Valid @RequestBody LoginRequest loginRequest) {
-        LoginResponse loginResponse = authService.login(loginRequest);
+    public ResponseEntity<ApiResponse<LoginResponse>> login(@Valid @RequestBody LoginRequest loginRequest,
+                                                            HttpServletRequest request) {
+        LoginResponse loginResponse = authService.login(loginRequest, request.getRemoteAddr());
         return ResponseEntity.ok(ApiResponse.success("Login successful", loginResponse));
     }
 
@@ -34,6 +39,17 @@ public class AuthController {
         return ResponseEntity.ok(ApiResponse.success("Token refreshed successfully", loginResponse));
     }
 
+    @PostMapping("/logout")
+    public ResponseEntity<ApiResponse<Void>> logout(
+            @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization,
+            @RequestBody(required = false) LogoutRequest logoutRequest) {
+        if (authorization == null || !authorization.startsWith("Bearer ")) {
+            throw new InvalidTokenException("Access token is required");
+        }
+        authService.logout(authorization.substring(7), logoutRequest);
+        return ResponseEntity.ok(ApiResponse.success("Logout successful", null));
+    }
+
     @PostMapping("/register")
     public ResponseEntity<ApiResponse<UserResponse>> register(@Valid @RequestBody UserRegistrationRequest registrationRequest) {
         UserResponse userResponse = userService.createUser(registrationRequest);
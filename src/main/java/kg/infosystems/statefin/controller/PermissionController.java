@@ -3,9 +3,14 @@ package kg.infosystems.statefin.controller;
 import kg.infosystems.statefin.dto.request.PermissionCreateRequest;
 import kg.infosystems.statefin.dto.request.PermissionUpdateRequest;
 import kg.infosystems.statefin.dto.response.ApiResponse;
+import kg.infosystems.statefin.dto.response.CursorPagedResponse;
 import kg.infosystems.statefin.dto.response.PagedResponse;
 import kg.infosystems.statefin.dto.response.PermissionResponse;
+import kg.infosystems.statefin.dto.response.RoleResponse;
+import kg.infosystems.statefin.dto.response.UserResponse;
 import kg.infosystems.statefin.service.PermissionService;
+import kg.infosystems.statefin.service.RoleService;
+import kg.infosystems.statefin.service.UserService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.PageRequest;
@@ -24,6 +29,8 @@ import java.util.List;
 public class PermissionController {
 
     private final PermissionService permissionService;
+    private final RoleService roleService;
+    private final UserService userService;
 
     @GetMapping
     @PreAuthorize("hasAuthority('PERMISSION_READ')")
@@ -38,6 +45,15 @@ public class PermissionController {
         return ResponseEntity.ok(ApiResponse.success(permissions));
     }
 
+    @GetMapping("/scroll")
+    @PreAuthorize("hasAuthority('PERMISSION_READ')")
+    public ResponseEntity<ApiResponse<CursorPagedResponse<PermissionResponse>>> scrollPermissions(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "100") int size) {
+        CursorPagedResponse<PermissionResponse> permissions = permissionService.scrollPermissions(cursor, size);
+        return ResponseEntity.ok(ApiResponse.success(permissions));
+    }
+
     @GetMapping("/{id}")
     @PreAuthorize("hasAuthority('PERMISSION_READ')")
     public ResponseEntity<ApiResponse<PermissionResponse>> getPermissionById(@PathVariable Long id) {
@@ -45,6 +61,26 @@ public class PermissionController {
         return ResponseEntity.ok(ApiResponse.success(permissionResponse));
     }
 
+    @GetMapping("/{id}/users")
+    @PreAuthorize("hasAuthority('PERMISSION_READ') and hasAuthority('USER_READ')")
+    public ResponseEntity<ApiResponse<CursorPagedResponse<UserResponse>>> getUsersWithPermission(
+            @PathVariable Long id,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "100") int size) {
+        CursorPagedResponse<UserResponse> users = userService.scrollUsersWithPermission(id, cursor, size);
+        return ResponseEntity.ok(ApiResponse.success(users));
+    }
+
+    @GetMapping("/{id}/roles")
+    @PreAuthorize("hasAuthority('PERMISSION_READ') and hasAuthority('ROLE_READ')")
+    public ResponseEntity<ApiResponse<CursorPagedResponse<RoleResponse>>> getRolesWithPermission(
+            @PathVariable Long id,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "100") int size) {
+        CursorPagedResponse<RoleResponse> roles = roleService.scrollRolesWithPermission(id, cursor, size);
+        return ResponseEntity.ok(ApiResponse.success(roles));
+    }
+
     @PostMapping
     @PreAuthorize("hasAuthority('PERMISSION_WRITE')")
     public ResponseEntity<ApiResponse<PermissionResponse>> createPermission(@Valid @RequestBody PermissionCreateRequest request) {
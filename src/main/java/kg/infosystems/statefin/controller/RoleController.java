@@ -3,10 +3,13 @@ package kg.infosystems.statefin.controller;
 import kg.infosystems.statefin.dto.request.RoleCreateRequest;
 import kg.infosystems.statefin.dto.request.RoleUpdateRequest;
 import kg.infosystems.statefin.dto.response.ApiResponse;
+import kg.infosystems.statefin.dto.response.CursorPagedResponse;
 import kg.infosystems.statefin.dto.response.PagedResponse;
 import kg.infosystems.statefin.dto.response.PermissionResponse;
 import kg.infosystems.statefin.dto.response.RoleResponse;
+import kg.infosystems.statefin.dto.response.UserResponse;
 import kg.infosystems.statefin.service.RoleService;
+import kg.infosystems.statefin.service.UserService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.PageRequest;
@@ -25,6 +28,7 @@ import java.util.Set;
 public class RoleController {
 
     private final RoleService roleService;
+    private final UserService userService;
 
     @GetMapping
     @PreAuthorize("hasAuthority('ROLE_READ')")
@@ -39,6 +43,15 @@ public class RoleController {
         return ResponseEntity.ok(ApiResponse.success(roles));
     }
 
+    @GetMapping("/scroll")
+    @PreAuthorize("hasAuthority('ROLE_READ')")
+    public ResponseEntity<ApiResponse<CursorPagedResponse<RoleResponse>>> scrollRoles(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "100") int size) {
+        CursorPagedResponse<RoleResponse> roles = roleService.scrollRoles(cursor, size);
+        return ResponseEntity.ok(ApiResponse.success(roles));
+    }
+
     @GetMapping("/{id}")
     @PreAuthorize("hasAuthority('ROLE_READ')")
     public ResponseEntity<ApiResponse<RoleResponse>> getRoleById(@PathVariable Long id) {
@@ -75,6 +88,16 @@ public class RoleController {
         return ResponseEntity.ok(ApiResponse.success(permissions));
     }
 
+    @GetMapping("/{id}/users")
+    @PreAuthorize("hasAuthority('ROLE_READ') and hasAuthority('USER_READ')")
+    public ResponseEntity<ApiResponse<CursorPagedResponse<UserResponse>>> getUsersWithRole(
+            @PathVariable Long id,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "100") int size) {
+        CursorPagedResponse<UserResponse> users = userService.scrollUsersWithRole(id, cursor, size);
+        return ResponseEntity.ok(ApiResponse.success(users));
+    }
+
     @PostMapping("/{roleId}/permissions/{permissionId}")
     @PreAuthorize("hasAuthority('ROLE_MANAGE')")
     public ResponseEntity<ApiResponse<RoleResponse>> assignPermissionToRole(@PathVariable Long roleId, @PathVariable Long permissionId) {
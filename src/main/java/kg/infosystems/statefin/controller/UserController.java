@@ -2,19 +2,32 @@ package kg.infosystems.statefin.controller;
 
 import kg.infosystems.statefin.dto.request.UserUpdateRequest;
 import kg.infosystems.statefin.dto.response.ApiResponse;
+import kg.infosystems.statefin.dto.response.BulkImportResponse;
+import kg.infosystems.statefin.dto.response.CursorPagedResponse;
 import kg.infosystems.statefin.dto.response.PagedResponse;
+import kg.infosystems.statefin.dto.response.PermissionResponse;
 import kg.infosystems.statefin.dto.response.UserResponse;
 import kg.infosystems.statefin.security.UserPrincipal;
+import kg.infosystems.statefin.service.UserExportService;
+import kg.infosystems.statefin.service.UserImportService;
 import kg.infosystems.statefin.service.UserService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
 
 @RestController
 @RequestMapping("/api/users")
@@ -22,6 +35,8 @@ import org.springframework.web.bind.annotation.*;
 public class UserController {
 
     private final UserService userService;
+    private final UserExportService userExportService;
+    private final UserImportService userImportService;
 
     @GetMapping("/me")
     public ResponseEntity<ApiResponse<UserResponse>> getCurrentUser(@AuthenticationPrincipal UserPrincipal currentUser) {
@@ -42,6 +57,35 @@ public class UserController {
         return ResponseEntity.ok(ApiResponse.success(users));
     }
 
+    @GetMapping("/scroll")
+    @PreAuthorize("hasAuthority('USER_READ')")
+    public ResponseEntity<ApiResponse<CursorPagedResponse<UserResponse>>> scrollUsers(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "100") int size) {
+        CursorPagedResponse<UserResponse> users = userService.scrollUsers(cursor, size);
+        return ResponseEntity.ok(ApiResponse.success(users));
+    }
+
+    @GetMapping("/export")
+    @PreAuthorize("hasAuthority('USER_READ')")
+    public ResponseEntity<StreamingResponseBody> exportUsers(@RequestParam(defaultValue = "ndjson") String format) {
+        UserExportService.Format exportFormat = UserExportService.Format.of(format);
+        ContentDisposition contentDisposition = ContentDisposition.attachment()
+                .filename("users." + exportFormat.getExtension())
+                .build();
+        return ResponseEntity.ok()
+                .contentType(exportFormat.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, contentDisposition.toString())
+                .body(outputStream -> userExportService.exportUsers(exportFormat, outputStream));
+    }
+
+    @PostMapping(value = "/import", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    @PreAuthorize("hasAuthority('USER_WRITE')")
+    public ResponseEntity<ApiResponse<BulkImportResponse>> importUsers(InputStream body) throws IOException {
+        BulkImportResponse result = userImportService.importUsers(body);
+        return ResponseEntity.ok(ApiResponse.success("Import completed", result));
+    }
+
     @GetMapping("/{id}")
     @PreAuthorize("hasAuthority('USER_READ')")
     public ResponseEntity<ApiResponse<UserResponse>> getUserById(@PathVariable Long id) {
@@ -49,6 +93,13 @@ public class UserController {
         return ResponseEntity.ok(ApiResponse.success(userResponse));
     }
 
+    @GetMapping("/{id}/effective-permissions")
+    @PreAuthorize("hasAuthority('USER_READ')")
+    public ResponseEntity<ApiResponse<List<PermissionResponse>>> getEffectivePermissions(@PathVariable Long id) {
+        List<PermissionResponse> permissions = userService.getEffectivePermissions(id);
+        return ResponseEntity.ok(ApiResponse.success(permissions));
+    }
+
     @PutMapping("/{id}")
     @PreAuthorize("hasAuthority('USER_WRITE')")
     public ResponseEntity<ApiResponse<UserResponse>> updateUser(@PathVariable Long id, @Valid @RequestBody UserUpdateRequest updateRequest) {
@@ -0,0 +1,15 @@
+package kg.infosystems.statefin.dto.request;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LogoutRequest {
+
+    /** Optional; when present, the login session it belongs to is revoked as well. */
+    private String refreshToken;
+
+}
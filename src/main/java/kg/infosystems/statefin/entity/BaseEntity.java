@@ -21,8 +21,14 @@ import java.time.LocalDateTime;
 @EntityListeners(AuditingEntityListener.class)
 public abstract class BaseEntity {
 
+    public static final String ID_GENERATOR = "entity_id";
+
+    /**
+     * Each entity declares an {@code entity_id} sequence generator; ids are handed out from pooled blocks so inserts
+     * can be batched.
+     */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = ID_GENERATOR)
     private Long id;
 
     @CreatedDate
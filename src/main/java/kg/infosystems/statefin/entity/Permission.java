@@ -6,13 +6,21 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 import lombok.experimental.SuperBuilder;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.util.HashSet;
 import java.util.Set;
 
 @Entity
+// Ids double as bit ordinals in token claims, so blocks stay small to keep them dense.
+@SequenceGenerator(name = BaseEntity.ID_GENERATOR, sequenceName = "permissions_seq", allocationSize = 10)
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "permissions")
 @Table(name = "permissions", uniqueConstraints = {
-    @UniqueConstraint(columnNames = {"name", "resource", "action"})
+    @UniqueConstraint(name = "uk_permissions_name_resource_action", columnNames = {"name", "resource", "action"})
+}, indexes = {
+    @Index(name = "idx_permissions_resource_action", columnList = "resource, action")
 })
 @Getter
 @Setter
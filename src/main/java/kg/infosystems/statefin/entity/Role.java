@@ -6,13 +6,19 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 import lombok.experimental.SuperBuilder;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.util.HashSet;
 import java.util.Set;
 
 @Entity
+@SequenceGenerator(name = BaseEntity.ID_GENERATOR, sequenceName = "roles_seq", allocationSize = 50)
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "roles")
 @Table(name = "roles", uniqueConstraints = {
-    @UniqueConstraint(columnNames = "name")
+    @UniqueConstraint(name = "uk_roles_name", columnNames = "name")
 })
 @Getter
 @Setter
@@ -21,21 +27,31 @@ import java.util.Set;
 @SuperBuilder
 public class Role extends BaseEntity {
 
-    @Column(name = "name", nullable = false, unique = true, length = 50)
+    @Column(name = "name", nullable = false, length = 50)
     private String name;
 
     @Column(name = "description", length = 255)
     private String description;
 
+    /**
+     * Bumped by bulk update whenever the role's effective permissions change; never written through the entity.
+     */
+    @Column(name = "authz_version", nullable = false, insertable = false, updatable = false)
+    @ColumnDefault("0")
+    @lombok.Builder.Default
+    private Long authzVersion = 0L;
+
     @ManyToMany(mappedBy = "roles", fetch = FetchType.LAZY)
     @lombok.Builder.Default
     private Set<User> users = new HashSet<>();
 
     @ManyToMany(fetch = FetchType.LAZY, cascade = CascadeType.MERGE)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "role-permissions")
     @JoinTable(
         name = "role_permissions",
         joinColumns = @JoinColumn(name = "role_id"),
-        inverseJoinColumns = @JoinColumn(name = "permission_id")
+        inverseJoinColumns = @JoinColumn(name = "permission_id"),
+        indexes = @Index(name = "idx_role_permissions_permission_role", columnList = "permission_id, role_id")
     )
     @lombok.Builder.Default
     private Set<Permission> permissions = new HashSet<>();
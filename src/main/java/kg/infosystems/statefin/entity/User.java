@@ -1,19 +1,24 @@
 package kg.infosystems.statefin.entity;
 
 import jakarta.persistence.*;
+import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 import lombok.experimental.SuperBuilder;
+import org.hibernate.annotations.ColumnDefault;
 
+import java.time.LocalDateTime;
 import java.util.HashSet;
+import java.util.Locale;
 import java.util.Set;
 
 @Entity
+@SequenceGenerator(name = BaseEntity.ID_GENERATOR, sequenceName = "users_seq", allocationSize = 50)
 @Table(name = "users", uniqueConstraints = {
-    @UniqueConstraint(columnNames = "username"),
-    @UniqueConstraint(columnNames = "email")
+    @UniqueConstraint(name = User.USERNAME_CONSTRAINT, columnNames = "username_normalized"),
+    @UniqueConstraint(name = User.EMAIL_CONSTRAINT, columnNames = "email_normalized")
 })
 @Getter
 @Setter
@@ -22,12 +27,27 @@ import java.util.Set;
 @SuperBuilder
 public class User extends BaseEntity {
 
-    @Column(name = "username", nullable = false, unique = true, length = 50)
+    public static final String USERNAME_CONSTRAINT = "uk_users_username_normalized";
+    public static final String EMAIL_CONSTRAINT = "uk_users_email_normalized";
+
+    @Column(name = "username", nullable = false, length = 50)
     private String username;
 
-    @Column(name = "email", nullable = false, unique = true, length = 100)
+    @Column(name = "email", nullable = false, length = 100)
     private String email;
 
+    /**
+     * Lowercased copies of username and email, kept in sync on every write. Lookups and uniqueness go through these
+     * columns, so both ignore case while staying index-backed.
+     */
+    @Column(name = "username_normalized", nullable = false, length = 50)
+    @Setter(AccessLevel.NONE)
+    private String usernameNormalized;
+
+    @Column(name = "email_normalized", nullable = false, length = 100)
+    @Setter(AccessLevel.NONE)
+    private String emailNormalized;
+
     @Column(name = "password", nullable = false)
     private String password;
 
@@ -37,11 +57,25 @@ public class User extends BaseEntity {
     @Column(name = "last_name", nullable = false, length = 50)
     private String lastName;
 
+    @Column(name = "authz_version", nullable = false)
+    @ColumnDefault("0")
+    @lombok.Builder.Default
+    private Long authzVersion = 0L;
+
+    @Column(name = "failed_login_attempts", nullable = false)
+    @ColumnDefault("0")
+    @lombok.Builder.Default
+    private Integer failedLoginAttempts = 0;
+
+    @Column(name = "locked_until")
+    private LocalDateTime lockedUntil;
+
     @ManyToMany(fetch = FetchType.LAZY, cascade = CascadeType.MERGE)
     @JoinTable(
         name = "user_roles",
         joinColumns = @JoinColumn(name = "user_id"),
-        inverseJoinColumns = @JoinColumn(name = "role_id")
+        inverseJoinColumns = @JoinColumn(name = "role_id"),
+        indexes = @Index(name = "idx_user_roles_role_user", columnList = "role_id, user_id")
     )
     @lombok.Builder.Default
     private Set<Role> roles = new HashSet<>();
@@ -56,4 +90,15 @@ public class User extends BaseEntity {
         role.getUsers().remove(this);
     }
 
+    @PrePersist
+    @PreUpdate
+    void normalizeKeys() {
+        this.usernameNormalized = normalize(username);
+        this.emailNormalized = normalize(email);
+    }
+
+    public static String normalize(String value) {
+        return value == null ? null : value.toLowerCase(Locale.ROOT);
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,46 @@
+package kg.infosystems.statefin.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+
+import java.io.Serializable;
+
+/**
+ * One row per permission a user holds through any of their roles. The table is derived from user_roles and
+ * role_permissions and is written only by {@code EffectivePermissionService}.
+ */
+@Entity
+@Immutable
+@Table(name = "user_effective_permissions", indexes = {
+    @Index(name = "idx_user_effective_permissions_permission_user", columnList = "permission_id, user_id")
+})
+@IdClass(UserEffectivePermission.Key.class)
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserEffectivePermission {
+
+    @Id
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Id
+    @Column(name = "permission_id", nullable = false)
+    private Long permissionId;
+
+    @Getter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    public static class Key implements Serializable {
+
+        private Long userId;
+        private Long permissionId;
+
+    }
+
+}
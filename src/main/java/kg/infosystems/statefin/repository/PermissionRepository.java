@@ -1,6 +1,7 @@
 package kg.infosystems.statefin.repository;
 
 import kg.infosystems.statefin.entity.Permission;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -24,6 +25,9 @@ public interface PermissionRepository extends JpaRepository<Permission, Long> {
     
     Page<Permission> findByActiveTrue(Pageable pageable);
     
+    @Query("SELECT p FROM Permission p WHERE p.active = true AND p.id > :afterId ORDER BY p.id")
+    List<Permission> findActiveAfter(@Param("afterId") long afterId, Limit limit);
+    
     List<Permission> findByResource(String resource);
     
     @Query("SELECT DISTINCT p.resource FROM Permission p WHERE p.active = true ORDER BY p.resource")
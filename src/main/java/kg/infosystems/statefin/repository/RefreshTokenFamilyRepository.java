@@ -0,0 +1,42 @@
+package kg.infosystems.statefin.repository;
+
+import kg.infosystems.statefin.entity.RefreshTokenFamily;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface RefreshTokenFamilyRepository extends JpaRepository<RefreshTokenFamily, String> {
+
+    /**
+     * Moves the family to its next token only if the presented token is still the current one, so two concurrent
+     * refreshes with the same token cannot both succeed.
+     */
+    @Modifying
+    @Query("UPDATE RefreshTokenFamily f SET f.currentTokenId = :nextTokenId, f.expiresAt = :expiresAt " +
+           "WHERE f.id = :id AND f.currentTokenId = :currentTokenId AND f.revokedAt IS NULL AND f.expiresAt > :now")
+    int rotate(@Param("id") String id,
+               @Param("currentTokenId") String currentTokenId,
+               @Param("nextTokenId") String nextTokenId,
+               @Param("expiresAt") LocalDateTime expiresAt,
+               @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE RefreshTokenFamily f SET f.revokedAt = :now WHERE f.id = :id AND f.revokedAt IS NULL")
+    int revoke(@Param("id") String id, @Param("now") LocalDateTime now);
+
+    @Query("SELECT f.id FROM RefreshTokenFamily f WHERE f.expiresAt < :now ORDER BY f.expiresAt")
+    List<String> findExpiredIds(@Param("now") LocalDateTime now, Limit limit);
+
+    @Modifying
+    @Query("DELETE FROM RefreshTokenFamily f WHERE f.id IN :ids")
+    int deleteByIdIn(@Param("ids") Collection<String> ids);
+
+}
@@ -0,0 +1,28 @@
+package kg.infosystems.statefin.repository;
+
+import kg.infosystems.statefin.entity.RevokedAccessToken;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface RevokedAccessTokenRepository extends JpaRepository<RevokedAccessToken, String> {
+
+    @Query("SELECT t.tokenId FROM RevokedAccessToken t WHERE t.expiresAt > :now")
+    List<String> findLiveTokenIds(@Param("now") LocalDateTime now);
+
+    @Query("SELECT t.tokenId FROM RevokedAccessToken t WHERE t.expiresAt <= :now ORDER BY t.expiresAt")
+    List<String> findExpiredTokenIds(@Param("now") LocalDateTime now, Limit limit);
+
+    @Modifying
+    @Query("DELETE FROM RevokedAccessToken t WHERE t.tokenId IN :tokenIds")
+    int deleteByTokenIdIn(@Param("tokenIds") Collection<String> tokenIds);
+
+}
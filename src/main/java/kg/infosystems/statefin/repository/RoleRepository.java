@@ -1,13 +1,17 @@
 package kg.infosystems.statefin.repository;
 
 import kg.infosystems.statefin.entity.Role;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -17,12 +21,54 @@ public interface RoleRepository extends JpaRepository<Role, Long> {
     
     boolean existsByName(String name);
     
-    Page<Role> findByActiveTrue(Pageable pageable);
+    @Query(value = "SELECT r.id FROM Role r WHERE r.active = true",
+           countQuery = "SELECT COUNT(r) FROM Role r WHERE r.active = true")
+    Page<Long> findActiveIds(Pageable pageable);
+    
+    @Query("SELECT r.id FROM Role r WHERE r.active = true AND r.id > :afterId ORDER BY r.id")
+    List<Long> findActiveIdsAfter(@Param("afterId") long afterId, Limit limit);
+    
+    @Query("SELECT r.id FROM Role r JOIN r.permissions p " +
+           "WHERE p.id = :permissionId AND r.active = true AND r.id > :afterId ORDER BY r.id")
+    List<Long> findActiveIdsByPermissionIdAfter(@Param("permissionId") Long permissionId,
+                                                @Param("afterId") long afterId,
+                                                Limit limit);
+    
+    @Query("SELECT DISTINCT r FROM Role r LEFT JOIN FETCH r.permissions WHERE r.id IN :ids")
+    List<Role> findAllWithPermissionsByIdIn(@Param("ids") Collection<Long> ids);
     
     @Query("SELECT r FROM Role r JOIN FETCH r.permissions WHERE r.id = :id AND r.active = true")
     Optional<Role> findByIdWithPermissions(@Param("id") Long id);
     
     @Query("SELECT r FROM Role r JOIN FETCH r.permissions WHERE r.name = :name AND r.active = true")
     Optional<Role> findByNameWithPermissions(@Param("name") String name);
+    
+    @Query("SELECT r.authzVersion FROM Role r WHERE r.id = :id")
+    Optional<Long> findAuthzVersionById(@Param("id") Long id);
+    
+    /**
+     * Selected as scalars, so neither the second-level cache of {@code Role.permissions} nor of {@code Permission}
+     * can answer with grants changed on another instance.
+     */
+    @Query("SELECT p.id AS id, p.name AS name, p.active AS active FROM Role r JOIN r.permissions p WHERE r.id = :roleId")
+    List<PermissionGrant> findPermissionGrantsByRoleId(@Param("roleId") Long roleId);
+    
+    @Modifying
+    @Query("UPDATE Role r SET r.authzVersion = r.authzVersion + 1 WHERE r.id = :roleId")
+    int incrementAuthzVersionById(@Param("roleId") Long roleId);
+    
+    @Modifying
+    @Query("UPDATE Role r SET r.authzVersion = r.authzVersion + 1 " +
+           "WHERE r.id IN (SELECT rp.id FROM Role rp JOIN rp.permissions p WHERE p.id = :permissionId)")
+    int incrementAuthzVersionByPermissionId(@Param("permissionId") Long permissionId);
+    
+    interface PermissionGrant {
+        
+        Long getId();
+        
+        String getName();
+        
+        Boolean getActive();
+    }
 
 }
\ No newline at end of file
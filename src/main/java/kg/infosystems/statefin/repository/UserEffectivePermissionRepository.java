@@ -0,0 +1,26 @@
+package kg.infosystems.statefin.repository;
+
+import kg.infosystems.statefin.entity.Permission;
+import kg.infosystems.statefin.entity.UserEffectivePermission;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface UserEffectivePermissionRepository extends JpaRepository<UserEffectivePermission, UserEffectivePermission.Key> {
+
+    @Query("SELECT p FROM UserEffectivePermission e JOIN Permission p ON p.id = e.permissionId " +
+           "WHERE e.userId = :userId AND p.active = true ORDER BY p.name")
+    List<Permission> findActivePermissionsByUserId(@Param("userId") Long userId);
+
+    @Query("SELECT e.userId FROM UserEffectivePermission e JOIN User u ON u.id = e.userId " +
+           "WHERE e.permissionId = :permissionId AND u.active = true AND e.userId > :afterId ORDER BY e.userId")
+    List<Long> findActiveUserIdsByPermissionIdAfter(@Param("permissionId") Long permissionId,
+                                                    @Param("afterId") long afterId,
+                                                    Limit limit);
+
+}
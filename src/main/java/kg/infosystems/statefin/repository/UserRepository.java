@@ -1,32 +1,133 @@
 package kg.infosystems.statefin.repository;
 
 import kg.infosystems.statefin.entity.User;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
     
-    Optional<User> findByUsername(String username);
+    Optional<User> findByUsernameNormalized(String usernameNormalized);
     
-    Optional<User> findByEmail(String email);
+    Optional<User> findByEmailNormalized(String emailNormalized);
     
-    boolean existsByUsername(String username);
+    boolean existsByUsernameNormalized(String usernameNormalized);
     
-    boolean existsByEmail(String email);
+    boolean existsByEmailNormalized(String emailNormalized);
     
-    Page<User> findByActiveTrue(Pageable pageable);
+    /**
+     * Username and email lookups ignore case: arguments are normalized with {@link User#normalize(String)} and matched
+     * against the indexed normalized columns.
+     */
+    default Optional<User> findByUsername(String username) {
+        return findByUsernameNormalized(User.normalize(username));
+    }
     
-    @Query("SELECT u FROM User u JOIN FETCH u.roles r JOIN FETCH r.permissions WHERE u.username = :username AND u.active = true")
-    Optional<User> findByUsernameWithRolesAndPermissions(@Param("username") String username);
+    default Optional<User> findByEmail(String email) {
+        return findByEmailNormalized(User.normalize(email));
+    }
+    
+    default boolean existsByUsername(String username) {
+        return existsByUsernameNormalized(User.normalize(username));
+    }
+    
+    default boolean existsByEmail(String email) {
+        return existsByEmailNormalized(User.normalize(email));
+    }
+    
+    @Query(value = "SELECT u.id FROM User u WHERE u.active = true",
+           countQuery = "SELECT COUNT(u) FROM User u WHERE u.active = true")
+    Page<Long> findActiveIds(Pageable pageable);
+    
+    @Query("SELECT u.id FROM User u WHERE u.active = true AND u.id > :afterId ORDER BY u.id")
+    List<Long> findActiveIdsAfter(@Param("afterId") long afterId, Limit limit);
+    
+    @Query("SELECT u.id FROM User u JOIN u.roles r " +
+           "WHERE r.id = :roleId AND u.active = true AND u.id > :afterId ORDER BY u.id")
+    List<Long> findActiveIdsByRoleIdAfter(@Param("roleId") Long roleId, @Param("afterId") long afterId, Limit limit);
+    
+    @Query("SELECT DISTINCT u FROM User u LEFT JOIN FETCH u.roles WHERE u.id IN :ids")
+    List<User> findAllWithRolesByIdIn(@Param("ids") Collection<Long> ids);
+    
+    /**
+     * Role permissions are not joined here; they resolve from the second-level cache of {@code Role.permissions}.
+     */
+    @Query("SELECT u FROM User u JOIN FETCH u.roles WHERE u.usernameNormalized = :usernameNormalized AND u.active = true")
+    Optional<User> findByUsernameNormalizedWithRoles(@Param("usernameNormalized") String usernameNormalized);
+    
+    default Optional<User> findByUsernameWithRoles(String username) {
+        return findByUsernameNormalizedWithRoles(User.normalize(username));
+    }
     
     @Query("SELECT u FROM User u JOIN FETCH u.roles WHERE u.id = :id AND u.active = true")
     Optional<User> findByIdWithRoles(@Param("id") Long id);
+    
+    @Modifying
+    @Query("UPDATE User u SET u.password = :password WHERE u.usernameNormalized = :usernameNormalized")
+    int updatePasswordByUsernameNormalized(@Param("usernameNormalized") String usernameNormalized,
+                                           @Param("password") String password);
+    
+    default int updatePasswordByUsername(String username, String password) {
+        return updatePasswordByUsernameNormalized(User.normalize(username), password);
+    }
+    
+    /**
+     * Counts a failed login and locks the account once {@code maxFailures} consecutive failures are reached. After a
+     * lock has expired the count starts over, so the next failure is the first of a new run.
+     */
+    @Modifying
+    @Query("UPDATE User u SET " +
+           "u.failedLoginAttempts = CASE WHEN u.lockedUntil IS NOT NULL AND u.lockedUntil < :now THEN 1 " +
+           "ELSE u.failedLoginAttempts + 1 END, " +
+           "u.lockedUntil = CASE WHEN u.lockedUntil IS NOT NULL AND u.lockedUntil < :now " +
+           "THEN CASE WHEN 1 >= :maxFailures THEN :lockedUntil ELSE NULL END " +
+           "WHEN u.failedLoginAttempts + 1 >= :maxFailures THEN :lockedUntil ELSE u.lockedUntil END " +
+           "WHERE u.usernameNormalized = :usernameNormalized")
+    int recordFailedLogin(@Param("usernameNormalized") String usernameNormalized,
+                          @Param("maxFailures") int maxFailures,
+                          @Param("now") LocalDateTime now,
+                          @Param("lockedUntil") LocalDateTime lockedUntil);
+    
+    @Modifying
+    @Query("UPDATE User u SET u.failedLoginAttempts = 0, u.lockedUntil = NULL " +
+           "WHERE u.id = :id AND (u.failedLoginAttempts > 0 OR u.lockedUntil IS NOT NULL)")
+    int resetFailedLogins(@Param("id") Long id);
+    
+    /**
+     * Takes and returns normalized usernames.
+     */
+    @Query("SELECT u.usernameNormalized FROM User u WHERE u.usernameNormalized IN :usernames")
+    Set<String> findExistingUsernames(@Param("usernames") Collection<String> usernames);
+    
+    /**
+     * Takes and returns normalized emails.
+     */
+    @Query("SELECT u.emailNormalized FROM User u WHERE u.emailNormalized IN :emails")
+    Set<String> findExistingEmails(@Param("emails") Collection<String> emails);
+    
+    @Query("SELECT u.authzVersion FROM User u WHERE u.id = :id AND u.active = true")
+    Optional<Long> findAuthzVersionById(@Param("id") Long id);
+    
+    @Modifying
+    @Query("UPDATE User u SET u.authzVersion = u.authzVersion + 1 " +
+           "WHERE u.id IN (SELECT ur.id FROM User ur JOIN ur.roles r WHERE r.id = :roleId)")
+    int incrementAuthzVersionByRoleId(@Param("roleId") Long roleId);
+    
+    @Modifying
+    @Query("UPDATE User u SET u.authzVersion = u.authzVersion + 1 " +
+           "WHERE u.id IN (SELECT ur.id FROM User ur JOIN ur.roles r JOIN r.permissions p WHERE p.id = :permissionId)")
+    int incrementAuthzVersionByPermissionId(@Param("permissionId") Long permissionId);
 
 }
\ No newline at end of file
@@ -0,0 +1,129 @@
+package kg.infosystems.statefin.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import kg.infosystems.statefin.entity.RevokedAccessToken;
+import kg.infosystems.statefin.repository.RevokedAccessTokenRepository;
+import kg.infosystems.statefin.security.jwt.JwtClaims;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+
+/**
+ * Access tokens revoked before they expire, keyed by {@code jti}. Every authenticated request asks this service, so
+ * the check is answered by an in-memory Bloom filter: a token that was never revoked misses the filter and costs a
+ * few hashes. Only filter hits are confirmed against the table, and that answer is cached per token.
+ * <p>
+ * The table is the source of truth. The filter is built from its live rows at startup and rebuilt periodically, which
+ * drops entries whose tokens have expired and picks up revocations made by other instances.
+ */
+@Slf4j
+@Service
+public class AccessTokenDenylist {
+
+    private final RevokedAccessTokenRepository repository;
+    private final TransactionTemplate transactionTemplate;
+    private final Cache<String, Boolean> confirmed;
+    private final long minimumCapacity;
+    private final double falsePositiveRate;
+    private final int purgeBatchSize;
+    private final Object rebuildLock = new Object();
+
+    private volatile BloomFilter filter;
+
+    public AccessTokenDenylist(RevokedAccessTokenRepository repository,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${jwt.access-token-denylist.expected-revocations:10000}") long minimumCapacity,
+                               @Value("${jwt.access-token-denylist.false-positive-rate:0.001}") double falsePositiveRate,
+                               @Value("${jwt.access-token-denylist.rebuild-interval:PT5M}") Duration rebuildInterval,
+                               @Value("${jwt.access-token-denylist.purge-batch-size:1000}") int purgeBatchSize) {
+        this.repository = repository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.confirmed = Caffeine.newBuilder()
+                .maximumSize(minimumCapacity)
+                .expireAfterWrite(rebuildInterval)
+                .build();
+        this.minimumCapacity = minimumCapacity;
+        this.falsePositiveRate = falsePositiveRate;
+        this.purgeBatchSize = purgeBatchSize;
+    }
+
+    @PostConstruct
+    public void init() {
+        rebuild();
+    }
+
+    public boolean isRevoked(JwtClaims claims) {
+        String tokenId = claims.getTokenId();
+        if (tokenId == null || !filter.mightContain(tokenId)) {
+            return false;
+        }
+        return confirmed.get(tokenId, repository::existsById);
+    }
+
+    @Transactional
+    public void revoke(JwtClaims claims) {
+        String tokenId = claims.getTokenId();
+        if (!repository.existsById(tokenId)) {
+            repository.save(RevokedAccessToken.builder()
+                    .tokenId(tokenId)
+                    .userId(claims.getUserId())
+                    .revokedAt(LocalDateTime.now())
+                    .expiresAt(LocalDateTime.ofInstant(claims.getExpiration(), ZoneId.systemDefault()))
+                    .build());
+        }
+        TransactionCallbacks.afterCommit(() -> {
+            // Serialized with rebuild: a revocation either lands in the rows it reads or in the filter it publishes.
+            synchronized (rebuildLock) {
+                filter.put(tokenId);
+            }
+            confirmed.put(tokenId, Boolean.TRUE);
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.access-token-denylist.rebuild-interval:PT5M}",
+               initialDelayString = "${jwt.access-token-denylist.rebuild-interval:PT5M}")
+    public void refresh() {
+        purgeExpired();
+        rebuild();
+    }
+
+    private void rebuild() {
+        synchronized (rebuildLock) {
+            List<String> live = repository.findLiveTokenIds(LocalDateTime.now());
+            BloomFilter rebuilt = BloomFilter.create(Math.max(minimumCapacity, 2L * live.size()), falsePositiveRate);
+            live.forEach(rebuilt::put);
+            filter = rebuilt;
+            confirmed.invalidateAll();
+            log.debug("Access token denylist rebuilt with {} entries ({} bits)", live.size(), rebuilt.bitCount());
+        }
+    }
+
+    private void purgeExpired() {
+        LocalDateTime now = LocalDateTime.now();
+        int purged = 0;
+        int deleted;
+        do {
+            deleted = transactionTemplate.execute(status -> {
+                List<String> ids = repository.findExpiredTokenIds(now, Limit.of(purgeBatchSize));
+                return ids.isEmpty() ? 0 : repository.deleteByTokenIdIn(ids);
+            });
+            purged += deleted;
+        } while (deleted == purgeBatchSize);
+        if (purged > 0) {
+            log.info("Purged {} expired access token revocations", purged);
+        }
+    }
+
+}
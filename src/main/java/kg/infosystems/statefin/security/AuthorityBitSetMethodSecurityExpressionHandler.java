@@ -0,0 +1,144 @@
+package kg.infosystems.statefin.security;
+
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.expression.EvaluationContext;
+import org.springframework.expression.spel.support.StandardEvaluationContext;
+import org.springframework.security.access.expression.method.DefaultMethodSecurityExpressionHandler;
+import org.springframework.security.access.expression.method.MethodSecurityExpressionOperations;
+import org.springframework.security.core.Authentication;
+
+import java.util.function.Supplier;
+
+public class AuthorityBitSetMethodSecurityExpressionHandler extends DefaultMethodSecurityExpressionHandler {
+
+    private final AuthorityBitSetPermissionEvaluator permissionEvaluator;
+
+    public AuthorityBitSetMethodSecurityExpressionHandler(AuthorityBitSetPermissionEvaluator permissionEvaluator) {
+        this.permissionEvaluator = permissionEvaluator;
+        setPermissionEvaluator(permissionEvaluator);
+    }
+
+    @Override
+    public EvaluationContext createEvaluationContext(Supplier<Authentication> authentication, MethodInvocation mi) {
+        StandardEvaluationContext context = (StandardEvaluationContext) super.createEvaluationContext(authentication, mi);
+        MethodSecurityExpressionOperations delegate =
+                (MethodSecurityExpressionOperations) context.getRootObject().getValue();
+        context.setRootObject(new AuthorityBitSetExpressionRoot(delegate, permissionEvaluator));
+        return context;
+    }
+
+    public static class AuthorityBitSetExpressionRoot implements MethodSecurityExpressionOperations {
+
+        private final MethodSecurityExpressionOperations delegate;
+        private final AuthorityBitSetPermissionEvaluator permissionEvaluator;
+
+        AuthorityBitSetExpressionRoot(MethodSecurityExpressionOperations delegate,
+                                      AuthorityBitSetPermissionEvaluator permissionEvaluator) {
+            this.delegate = delegate;
+            this.permissionEvaluator = permissionEvaluator;
+        }
+
+        @Override
+        public boolean hasAuthority(String authority) {
+            return permissionEvaluator.hasAuthority(getAuthentication(), authority);
+        }
+
+        @Override
+        public boolean hasAnyAuthority(String... authorities) {
+            Authentication authentication = getAuthentication();
+            for (String authority : authorities) {
+                if (permissionEvaluator.hasAuthority(authentication, authority)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        public Object getPrincipal() {
+            Authentication authentication = getAuthentication();
+            return authentication != null ? authentication.getPrincipal() : null;
+        }
+
+        @Override
+        public Authentication getAuthentication() {
+            return delegate.getAuthentication();
+        }
+
+        @Override
+        public boolean hasRole(String role) {
+            return delegate.hasRole(role);
+        }
+
+        @Override
+        public boolean hasAnyRole(String... roles) {
+            return delegate.hasAnyRole(roles);
+        }
+
+        @Override
+        public boolean permitAll() {
+            return delegate.permitAll();
+        }
+
+        @Override
+        public boolean denyAll() {
+            return delegate.denyAll();
+        }
+
+        @Override
+        public boolean isAnonymous() {
+            return delegate.isAnonymous();
+        }
+
+        @Override
+        public boolean isAuthenticated() {
+            return delegate.isAuthenticated();
+        }
+
+        @Override
+        public boolean isRememberMe() {
+            return delegate.isRememberMe();
+        }
+
+        @Override
+        public boolean isFullyAuthenticated() {
+            return delegate.isFullyAuthenticated();
+        }
+
+        @Override
+        public boolean hasPermission(Object target, Object permission) {
+            return delegate.hasPermission(target, permission);
+        }
+
+        @Override
+        public boolean hasPermission(Object targetId, String targetType, Object permission) {
+            return delegate.hasPermission(targetId, targetType, permission);
+        }
+
+        @Override
+        public void setFilterObject(Object filterObject) {
+            delegate.setFilterObject(filterObject);
+        }
+
+        @Override
+        public Object getFilterObject() {
+            return delegate.getFilterObject();
+        }
+
+        @Override
+        public void setReturnObject(Object returnObject) {
+            delegate.setReturnObject(returnObject);
+        }
+
+        @Override
+        public Object getReturnObject() {
+            return delegate.getReturnObject();
+        }
+
+        @Override
+        public Object getThis() {
+            return delegate.getThis();
+        }
+
+    }
+
+}
@@ -0,0 +1,58 @@
+package kg.infosystems.statefin.security;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.security.access.PermissionEvaluator;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.io.Serializable;
+
+public class AuthorityBitSetPermissionEvaluator implements PermissionEvaluator {
+
+    private final ObjectProvider<PermissionIndex> permissionIndexProvider;
+
+    private volatile PermissionIndex permissionIndex;
+
+    public AuthorityBitSetPermissionEvaluator(ObjectProvider<PermissionIndex> permissionIndexProvider) {
+        this.permissionIndexProvider = permissionIndexProvider;
+    }
+
+    public boolean hasAuthority(Authentication authentication, String authority) {
+        if (authentication == null) {
+            return false;
+        }
+        if (authentication.getPrincipal() instanceof UserPrincipal principal && principal.getAuthorityBits() != null) {
+            int ordinal = permissionIndex().ordinalOf(authority);
+            if (ordinal >= 0) {
+                return principal.getAuthorityBits().contains(ordinal);
+            }
+        }
+        for (GrantedAuthority grantedAuthority : authentication.getAuthorities()) {
+            if (authority.equals(grantedAuthority.getAuthority())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public boolean hasPermission(Authentication authentication, Object targetDomainObject, Object permission) {
+        return permission != null && hasAuthority(authentication, permission.toString());
+    }
+
+    @Override
+    public boolean hasPermission(Authentication authentication, Serializable targetId, String targetType,
+                                 Object permission) {
+        return permission != null && hasAuthority(authentication, permission.toString());
+    }
+
+    private PermissionIndex permissionIndex() {
+        PermissionIndex index = permissionIndex;
+        if (index == null) {
+            index = permissionIndexProvider.getObject();
+            permissionIndex = index;
+        }
+        return index;
+    }
+
+}
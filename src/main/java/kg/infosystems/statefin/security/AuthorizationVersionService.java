@@ -0,0 +1,70 @@
+package kg.infosystems.statefin.security;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import kg.infosystems.statefin.entity.User;
+import kg.infosystems.statefin.repository.RoleRepository;
+import kg.infosystems.statefin.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+
+@Service
+public class AuthorizationVersionService {
+
+    private static final long UNKNOWN_USER = -1L;
+
+    private final UserRepository userRepository;
+    private final RoleRepository roleRepository;
+    private final RoleAuthorityIndex roleAuthorityIndex;
+    private final LoadingCache<Long, Long> versions;
+
+    public AuthorizationVersionService(UserRepository userRepository,
+                                       RoleRepository roleRepository,
+                                       RoleAuthorityIndex roleAuthorityIndex,
+                                       MeterRegistry meterRegistry,
+                                       @Value("${app.security.authz-version-cache.maximum-size:100000}") long maximumSize,
+                                       @Value("${app.security.authz-version-cache.expire-after-write:60s}") Duration expireAfterWrite) {
+        this.userRepository = userRepository;
+        this.roleRepository = roleRepository;
+        this.roleAuthorityIndex = roleAuthorityIndex;
+        this.versions = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build(userId -> userRepository.findAuthzVersionById(userId).orElse(UNKNOWN_USER));
+        CaffeineCacheMetrics.monitor(meterRegistry, versions, "authzVersions");
+    }
+
+    public boolean isCurrent(Long userId, Long tokenVersion) {
+        if (userId == null || tokenVersion == null) {
+            return false;
+        }
+        long currentVersion = versions.get(userId);
+        return currentVersion != UNKNOWN_USER && currentVersion == tokenVersion;
+    }
+
+    public void userChanged(User user) {
+        user.setAuthzVersion(user.getAuthzVersion() + 1);
+        Long userId = user.getId();
+        TransactionCallbacks.afterCommit(() -> versions.invalidate(userId));
+    }
+
+    public void roleChanged(Long roleId) {
+        userRepository.incrementAuthzVersionByRoleId(roleId);
+        roleRepository.incrementAuthzVersionById(roleId);
+        roleAuthorityIndex.roleChanged(roleId);
+        TransactionCallbacks.afterCommit(versions::invalidateAll);
+    }
+
+    public void permissionChanged(Long permissionId) {
+        userRepository.incrementAuthzVersionByPermissionId(permissionId);
+        roleRepository.incrementAuthzVersionByPermissionId(permissionId);
+        roleAuthorityIndex.permissionChanged(permissionId);
+        TransactionCallbacks.afterCommit(versions::invalidateAll);
+    }
+
+}
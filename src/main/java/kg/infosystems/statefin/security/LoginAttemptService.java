@@ -0,0 +1,167 @@
+package kg.infosystems.statefin.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import kg.infosystems.statefin.entity.User;
+import kg.infosystems.statefin.exception.TooManyRequestsException;
+import kg.infosystems.statefin.repository.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Guards the login endpoint before any password hashing. Attempts per client address and failures per username are
+ * counted in sliding windows kept in memory, bounded in number and evicted once idle, so a flood of guesses is turned
+ * away without a user query or a hash. Every attempt reserves a username slot up front, so concurrent guesses cannot
+ * all pass the check before the first of them fails; a successful login releases it. Separately, consecutive failures are counted on the user row and lock the
+ * account for a while; the authentication provider rejects a locked principal before checking its password.
+ */
+@Slf4j
+@Service
+public class LoginAttemptService {
+
+    private static final String TOO_MANY_ATTEMPTS = "Too many login attempts, please retry later";
+
+    private final UserRepository userRepository;
+    private final Cache<String, SlidingWindow> windows;
+    private final long windowMs;
+    private final int maxAttemptsPerAddress;
+    private final int maxFailuresPerUsername;
+    private final boolean lockoutEnabled;
+    private final int lockoutMaxFailures;
+    private final Duration lockoutDuration;
+
+    public LoginAttemptService(UserRepository userRepository,
+                               @Value("${app.login.rate-limit.window:5m}") Duration window,
+                               @Value("${app.login.rate-limit.max-attempts-per-address:50}") int maxAttemptsPerAddress,
+                               @Value("${app.login.rate-limit.max-failures-per-username:5}") int maxFailuresPerUsername,
+                               @Value("${app.login.rate-limit.max-tracked-keys:100000}") long maxTrackedKeys,
+                               @Value("${app.login.lockout.enabled:true}") boolean lockoutEnabled,
+                               @Value("${app.login.lockout.max-failures:10}") int lockoutMaxFailures,
+                               @Value("${app.login.lockout.duration:15m}") Duration lockoutDuration) {
+        this.userRepository = userRepository;
+        this.windows = Caffeine.newBuilder()
+                .maximumSize(maxTrackedKeys)
+                .expireAfterAccess(window.multipliedBy(2))
+                .build();
+        this.windowMs = window.toMillis();
+        this.maxAttemptsPerAddress = maxAttemptsPerAddress;
+        this.maxFailuresPerUsername = maxFailuresPerUsername;
+        this.lockoutEnabled = lockoutEnabled;
+        this.lockoutMaxFailures = lockoutMaxFailures;
+        this.lockoutDuration = lockoutDuration;
+    }
+
+    /**
+     * Counts the attempt against the client address and, as a failure until it succeeds, against the username;
+     * rejects it if either is over its limit.
+     */
+    public void beforeAttempt(String username, String clientAddress) {
+        long now = System.currentTimeMillis();
+        SlidingWindow failures = windows.get(usernameKey(username), key -> new SlidingWindow(now));
+        if (!failures.tryAcquire(now, windowMs, maxFailuresPerUsername)) {
+            throw tooManyAttempts(failures, now);
+        }
+        SlidingWindow attempts = windows.get(addressKey(clientAddress), key -> new SlidingWindow(now));
+        if (!attempts.tryAcquire(now, windowMs, maxAttemptsPerAddress)) {
+            failures.release();
+            log.warn("Login rate limit reached for address {}", clientAddress);
+            throw tooManyAttempts(attempts, now);
+        }
+    }
+
+    /**
+     * The username slot reserved by {@link #beforeAttempt} already counts this failure.
+     */
+    @Transactional
+    public void loginFailed(String username) {
+        if (lockoutEnabled) {
+            LocalDateTime failedAt = LocalDateTime.now();
+            userRepository.recordFailedLogin(User.normalize(username), lockoutMaxFailures, failedAt,
+                    failedAt.plus(lockoutDuration));
+        }
+    }
+
+    /**
+     * Releases the slot reserved for this attempt along with the username's earlier failures.
+     */
+    @Transactional
+    public void loginSucceeded(UserPrincipal principal) {
+        windows.invalidate(usernameKey(principal.getUsername()));
+        if (lockoutEnabled) {
+            userRepository.resetFailedLogins(principal.getId());
+        }
+    }
+
+    private TooManyRequestsException tooManyAttempts(SlidingWindow window, long now) {
+        return new TooManyRequestsException(TOO_MANY_ATTEMPTS, Duration.ofMillis(window.millisUntilNext(now, windowMs)));
+    }
+
+    private static String usernameKey(String username) {
+        return "user:" + User.normalize(username);
+    }
+
+    private static String addressKey(String clientAddress) {
+        return "addr:" + clientAddress;
+    }
+
+    /**
+     * Sliding-window counter: the count of the current fixed window plus the previous window's count weighted by how
+     * much of it still overlaps the sliding window. Two ints per key instead of one timestamp per attempt.
+     */
+    private static final class SlidingWindow {
+
+        private long start;
+        private int previous;
+        private int current;
+
+        SlidingWindow(long now) {
+            this.start = now;
+        }
+
+        synchronized boolean tryAcquire(long now, long windowMs, int limit) {
+            advance(now, windowMs);
+            if (estimate(now, windowMs) >= limit) {
+                return false;
+            }
+            current++;
+            return true;
+        }
+
+        /**
+         * Gives back a slot taken by {@link #tryAcquire}, from the previous window if it has rolled over since.
+         */
+        synchronized void release() {
+            if (current > 0) {
+                current--;
+            } else if (previous > 0) {
+                previous--;
+            }
+        }
+
+        synchronized long millisUntilNext(long now, long windowMs) {
+            advance(now, windowMs);
+            return start + windowMs - now;
+        }
+
+        private void advance(long now, long windowMs) {
+            long elapsed = (now - start) / windowMs;
+            if (elapsed > 0) {
+                previous = elapsed == 1 ? current : 0;
+                current = 0;
+                start += elapsed * windowMs;
+            }
+        }
+
+        private double estimate(long now, long windowMs) {
+            double overlap = 1.0 - (double) (now - start) / windowMs;
+            return previous * overlap + current;
+        }
+
+    }
+
+}
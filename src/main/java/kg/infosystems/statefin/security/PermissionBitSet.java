@@ -0,0 +1,85 @@
+package kg.infosystems.statefin.security;
+
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.BitSet;
+import java.util.stream.IntStream;
+
+public final class PermissionBitSet {
+
+    public static final int MAX_ORDINAL = 1 << 16;
+
+    public static final PermissionBitSet EMPTY = new PermissionBitSet(new long[0]);
+
+    private final long[] words;
+
+    private PermissionBitSet(long[] words) {
+        this.words = words;
+    }
+
+    public static PermissionBitSet of(IntStream ordinals) {
+        BitSet bits = new BitSet();
+        ordinals.filter(PermissionBitSet::isEncodable).forEach(bits::set);
+        return bits.isEmpty() ? EMPTY : new PermissionBitSet(bits.toLongArray());
+    }
+
+    public static boolean isEncodable(long ordinal) {
+        return ordinal >= 0 && ordinal < MAX_ORDINAL;
+    }
+
+    public static PermissionBitSet decode(String encoded) {
+        if (encoded == null || encoded.isEmpty()) {
+            return EMPTY;
+        }
+        BitSet bits = BitSet.valueOf(Base64.getUrlDecoder().decode(encoded));
+        if (bits.length() > MAX_ORDINAL) {
+            throw new IllegalArgumentException("Permission bitset exceeds " + MAX_ORDINAL + " entries");
+        }
+        return bits.isEmpty() ? EMPTY : new PermissionBitSet(bits.toLongArray());
+    }
+
+    public String encode() {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(BitSet.valueOf(words).toByteArray());
+    }
+
+    public boolean contains(long ordinal) {
+        if (!isEncodable(ordinal)) {
+            return false;
+        }
+        int word = (int) (ordinal >>> 6);
+        return word < words.length && (words[word] & (1L << ordinal)) != 0;
+    }
+
+    public PermissionBitSet or(PermissionBitSet other) {
+        if (other.words.length == 0) {
+            return this;
+        }
+        if (words.length == 0) {
+            return other;
+        }
+        long[] result = Arrays.copyOf(words, Math.max(words.length, other.words.length));
+        for (int i = 0; i < other.words.length; i++) {
+            result[i] |= other.words[i];
+        }
+        return new PermissionBitSet(result);
+    }
+
+    public IntStream ordinals() {
+        return BitSet.valueOf(words).stream();
+    }
+
+    public boolean isEmpty() {
+        return words.length == 0;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || o instanceof PermissionBitSet other && Arrays.equals(words, other.words);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(words);
+    }
+
+}
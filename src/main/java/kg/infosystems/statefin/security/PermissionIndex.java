@@ -0,0 +1,106 @@
+package kg.infosystems.statefin.security;
+
+import kg.infosystems.statefin.entity.Permission;
+import kg.infosystems.statefin.repository.PermissionRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Permission names by bit-set ordinal and back, loaded from the permissions table. Local writes drop the snapshot on
+ * commit. A name or ordinal the snapshot does not know, such as one created on another instance, triggers a reload at
+ * most once per {@code app.security.permission-index.min-reload-interval}; until then it stays unknown, so tokens
+ * carrying unknown bits cannot force a table read per request.
+ */
+@Component
+public class PermissionIndex {
+
+    private final PermissionRepository permissionRepository;
+    private final long minReloadIntervalNanos;
+
+    private volatile Snapshot snapshot;
+
+    public PermissionIndex(PermissionRepository permissionRepository,
+                           @Value("${app.security.permission-index.min-reload-interval:30s}") Duration minReloadInterval) {
+        this.permissionRepository = permissionRepository;
+        this.minReloadIntervalNanos = minReloadInterval.toNanos();
+    }
+
+    public int ordinalOf(String permissionName) {
+        Snapshot current = snapshot();
+        Integer ordinal = current.ordinals.get(permissionName);
+        if (ordinal == null && isReloadDue(current)) {
+            ordinal = reload(current).ordinals.get(permissionName);
+        }
+        return ordinal != null ? ordinal : -1;
+    }
+
+    public static int ordinalOf(Permission permission) {
+        return ordinalOfId(permission.getId());
+    }
+
+    public static int ordinalOfId(Long permissionId) {
+        return PermissionBitSet.isEncodable(permissionId) ? permissionId.intValue() : -1;
+    }
+
+    public GrantedAuthority authorityOf(int ordinal) {
+        Snapshot current = snapshot();
+        GrantedAuthority authority = current.authorities.get(ordinal);
+        if (authority == null && isReloadDue(current)) {
+            authority = reload(current).authorities.get(ordinal);
+        }
+        return authority;
+    }
+
+    public List<GrantedAuthority> authoritiesOf(PermissionBitSet bits) {
+        return bits.ordinals()
+                .mapToObj(this::authorityOf)
+                .filter(authority -> authority != null)
+                .toList();
+    }
+
+    public void invalidate() {
+        TransactionCallbacks.afterCommit(() -> snapshot = null);
+    }
+
+    private Snapshot snapshot() {
+        Snapshot current = snapshot;
+        return current != null ? current : reload(null);
+    }
+
+    private boolean isReloadDue(Snapshot current) {
+        return System.nanoTime() - current.loadedAt >= minReloadIntervalNanos;
+    }
+
+    /**
+     * Reloads unless another thread already replaced the snapshot the caller saw.
+     */
+    private synchronized Snapshot reload(Snapshot seen) {
+        Snapshot current = snapshot;
+        if (current != null && current != seen) {
+            return current;
+        }
+        Map<String, Integer> ordinals = new HashMap<>();
+        Map<Integer, GrantedAuthority> authorities = new HashMap<>();
+        for (Permission permission : permissionRepository.findAll()) {
+            int ordinal = ordinalOf(permission);
+            if (ordinal >= 0) {
+                ordinals.put(permission.getName(), ordinal);
+                authorities.put(ordinal, new SimpleGrantedAuthority(permission.getName()));
+            }
+        }
+        Snapshot loaded = new Snapshot(Map.copyOf(ordinals), Map.copyOf(authorities), System.nanoTime());
+        snapshot = loaded;
+        return loaded;
+    }
+
+    private record Snapshot(Map<String, Integer> ordinals, Map<Integer, GrantedAuthority> authorities, long loadedAt) {
+    }
+
+}
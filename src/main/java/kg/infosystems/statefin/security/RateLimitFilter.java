@@ -0,0 +1,186 @@
+package kg.infosystems.statefin.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import kg.infosystems.statefin.dto.response.ApiResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Request quotas for the API, applied after the JWT filter so that authenticated callers are keyed by user id and
+ * anonymous ones by client address. Each caller has its own bucket for the default quota and one per matching
+ * endpoint quota, so a busy integration only exhausts its own allowance. Buckets live in memory and are dropped once
+ * idle long enough to have refilled, which loses nothing; no request touches the database. The client address is
+ * only meaningful behind a proxy when server.forward-headers-strategy resolves it from the proxy's X-Forwarded-For.
+ */
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final String TOO_MANY_REQUESTS = "Request rate limit exceeded, please retry later";
+
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final TokenBucket.Quota defaultQuota;
+    private final Map<String, TokenBucket.Quota> endpointQuotas;
+    private final Cache<String, TokenBucket> buckets;
+    private final Map<String, Counter> allowed = new HashMap<>();
+    private final Map<String, Counter> rejected = new HashMap<>();
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+    public RateLimitFilter(ObjectMapper objectMapper,
+                           MeterRegistry meterRegistry,
+                           @Value("${app.rate-limit.enabled:true}") boolean enabled,
+                           @Value("${app.rate-limit.requests-per-second:20}") double requestsPerSecond,
+                           @Value("${app.rate-limit.burst:100}") int burst,
+                           @Value("${app.rate-limit.endpoints:}") List<String> endpoints,
+                           @Value("${app.rate-limit.max-tracked-callers:100000}") long maxTrackedCallers) {
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.defaultQuota = TokenBucket.Quota.of("default", requestsPerSecond, burst);
+        this.endpointQuotas = parseEndpointQuotas(endpoints);
+
+        List<TokenBucket.Quota> quotas = new ArrayList<>(endpointQuotas.values());
+        quotas.add(defaultQuota);
+        long idleNanos = quotas.stream().mapToLong(TokenBucket.Quota::refillNanos).max().orElseThrow();
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxTrackedCallers)
+                .expireAfterAccess(Duration.ofNanos(idleNanos))
+                .build();
+        for (TokenBucket.Quota quota : quotas) {
+            allowed.put(quota.name(), decisions(meterRegistry, quota, "allowed"));
+            rejected.put(quota.name(), decisions(meterRegistry, quota, "rejected"));
+        }
+        Gauge.builder("rate.limit.buckets", buckets, Cache::estimatedSize)
+                .description("Caller buckets currently held in memory")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || !path(request).startsWith("/api/");
+    }
+
+    /**
+     * A request is charged to the endpoint quota and the default quota only if both admit it; a token taken from the
+     * endpoint bucket is given back when the default quota turns the request away.
+     */
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        String caller = callerKey(request);
+        long now = System.nanoTime();
+        TokenBucket.Quota endpointQuota = endpointQuota(path(request));
+        TokenBucket endpointBucket = null;
+        if (endpointQuota != null) {
+            endpointBucket = bucket(endpointQuota, caller);
+            long waitNanos = endpointBucket.tryConsume(endpointQuota, now);
+            if (waitNanos > 0) {
+                reject(endpointQuota, waitNanos, response);
+                return;
+            }
+        }
+        long waitNanos = bucket(defaultQuota, caller).tryConsume(defaultQuota, now);
+        if (waitNanos > 0) {
+            if (endpointBucket != null) {
+                endpointBucket.refund(endpointQuota);
+            }
+            reject(defaultQuota, waitNanos, response);
+            return;
+        }
+        if (endpointQuota != null) {
+            allowed.get(endpointQuota.name()).increment();
+        }
+        allowed.get(defaultQuota.name()).increment();
+        filterChain.doFilter(request, response);
+    }
+
+    private TokenBucket bucket(TokenBucket.Quota quota, String caller) {
+        return buckets.get(quota.name() + '|' + caller, key -> new TokenBucket());
+    }
+
+    private void reject(TokenBucket.Quota quota, long waitNanos, HttpServletResponse response) throws IOException {
+        rejected.get(quota.name()).increment();
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER,
+                String.valueOf(Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L))));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getWriter().write(objectMapper.writeValueAsString(ApiResponse.error("Too many requests", TOO_MANY_REQUESTS)));
+    }
+
+    private TokenBucket.Quota endpointQuota(String path) {
+        for (Map.Entry<String, TokenBucket.Quota> entry : endpointQuotas.entrySet()) {
+            if (pathMatcher.match(entry.getKey(), path)) {
+                return entry.getValue();
+            }
+        }
+        return null;
+    }
+
+    private static String callerKey(HttpServletRequest request) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof UserPrincipal principal) {
+            return "user:" + principal.getId();
+        }
+        return "addr:" + request.getRemoteAddr();
+    }
+
+    private static String path(HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length());
+    }
+
+    /**
+     * Entries look like {@code /api/users/export=0.2:5}: an Ant path pattern, the sustained requests per second and
+     * the burst. The first matching pattern applies.
+     */
+    private static Map<String, TokenBucket.Quota> parseEndpointQuotas(List<String> endpoints) {
+        Map<String, TokenBucket.Quota> quotas = new LinkedHashMap<>();
+        for (String endpoint : endpoints) {
+            String entry = endpoint.trim();
+            if (entry.isEmpty()) {
+                continue;
+            }
+            int equals = entry.lastIndexOf('=');
+            int colon = entry.lastIndexOf(':');
+            if (equals <= 0 || colon < equals) {
+                throw new IllegalArgumentException("Invalid endpoint rate limit: " + entry);
+            }
+            String pattern = entry.substring(0, equals);
+            quotas.put(pattern, TokenBucket.Quota.of(pattern,
+                    Double.parseDouble(entry.substring(equals + 1, colon)),
+                    Integer.parseInt(entry.substring(colon + 1))));
+        }
+        return quotas;
+    }
+
+    private static Counter decisions(MeterRegistry meterRegistry, TokenBucket.Quota quota, String outcome) {
+        return Counter.builder("rate.limit.requests")
+                .description("API requests checked against a rate limit quota")
+                .tags("quota", quota.name(), "outcome", outcome)
+                .register(meterRegistry);
+    }
+
+}
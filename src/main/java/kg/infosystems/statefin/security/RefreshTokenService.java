@@ -0,0 +1,153 @@
+package kg.infosystems.statefin.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import jakarta.persistence.EntityManager;
+import kg.infosystems.statefin.entity.RefreshTokenFamily;
+import kg.infosystems.statefin.exception.InvalidTokenException;
+import kg.infosystems.statefin.repository.RefreshTokenFamilyRepository;
+import kg.infosystems.statefin.security.jwt.JwtClaims;
+import kg.infosystems.statefin.security.jwt.JwtUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Server-side record of refresh tokens. A login opens a token family, each refresh rotates it to a new token id with
+ * a single conditional update, and presenting a token that was already rotated away revokes the family. Revoked
+ * families are also kept in a local set so replays are rejected without a database round trip; expired families
+ * are deleted in batches by a background sweep.
+ */
+@Slf4j
+@Service
+public class RefreshTokenService {
+
+    private final RefreshTokenFamilyRepository familyRepository;
+    private final EntityManager entityManager;
+    private final JwtUtils jwtUtils;
+    private final TransactionTemplate transactionTemplate;
+    private final Cache<String, Boolean> revokedFamilies;
+    private final int purgeBatchSize;
+
+    public RefreshTokenService(RefreshTokenFamilyRepository familyRepository,
+                               EntityManager entityManager,
+                               JwtUtils jwtUtils,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${jwt.refresh-tokens.revoked-cache-size:100000}") long revokedCacheSize,
+                               @Value("${jwt.refresh-tokens.purge-batch-size:1000}") int purgeBatchSize) {
+        this.familyRepository = familyRepository;
+        this.entityManager = entityManager;
+        this.jwtUtils = jwtUtils;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.revokedFamilies = Caffeine.newBuilder()
+                .maximumSize(revokedCacheSize)
+                .expireAfterWrite(Duration.ofMillis(jwtUtils.getRefreshExpirationMs()))
+                .build();
+        this.purgeBatchSize = purgeBatchSize;
+    }
+
+    @Transactional
+    public String issue(Authentication authentication) {
+        UserPrincipal principal = (UserPrincipal) authentication.getPrincipal();
+        String familyId = UUID.randomUUID().toString();
+        String tokenId = UUID.randomUUID().toString();
+        Instant expiresAt = nextExpiry();
+        entityManager.persist(RefreshTokenFamily.builder()
+                .id(familyId)
+                .userId(principal.getId())
+                .currentTokenId(tokenId)
+                .createdAt(LocalDateTime.now())
+                .expiresAt(toLocal(expiresAt))
+                .build());
+        return jwtUtils.generateRefreshToken(authentication, familyId, tokenId, expiresAt);
+    }
+
+    /**
+     * Checks signature, expiry and token type, and rejects families known to be revoked. Whether the token is still
+     * the current one of its family is decided by {@link #rotate}.
+     */
+    public JwtClaims verify(String refreshToken) {
+        JwtClaims claims;
+        try {
+            claims = jwtUtils.parseJwtToken(refreshToken);
+        } catch (ExpiredJwtException e) {
+            throw new InvalidTokenException("Refresh token has expired", e);
+        } catch (JwtException | IllegalArgumentException e) {
+            throw new InvalidTokenException("Invalid refresh token", e);
+        }
+        if (!claims.isRefreshToken() || claims.getFamilyId() == null || claims.getTokenId() == null
+                || claims.getUserId() == null) {
+            throw new InvalidTokenException("Invalid refresh token");
+        }
+        if (revokedFamilies.getIfPresent(claims.getFamilyId()) != null) {
+            throw new InvalidTokenException("Refresh token has been revoked");
+        }
+        return claims;
+    }
+
+    @Transactional(noRollbackFor = InvalidTokenException.class)
+    public String rotate(JwtClaims claims, Authentication authentication) {
+        String familyId = claims.getFamilyId();
+        String nextTokenId = UUID.randomUUID().toString();
+        Instant expiresAt = nextExpiry();
+        LocalDateTime now = LocalDateTime.now();
+        if (familyRepository.rotate(familyId, claims.getTokenId(), nextTokenId, toLocal(expiresAt), now) == 1) {
+            return jwtUtils.generateRefreshToken(authentication, familyId, nextTokenId, expiresAt);
+        }
+        RefreshTokenFamily family = familyRepository.findById(familyId).orElse(null);
+        if (family != null && family.getRevokedAt() == null && family.getExpiresAt().isAfter(now)) {
+            // A live family whose current token is a different one: this token was rotated away and replayed.
+            log.warn("Refresh token reuse detected for user {}, revoking session {}", family.getUserId(), familyId);
+            revoke(familyId);
+            throw new InvalidTokenException("Refresh token has already been used");
+        }
+        throw new InvalidTokenException("Refresh token has been revoked");
+    }
+
+    @Transactional
+    public void revoke(String familyId) {
+        familyRepository.revoke(familyId, LocalDateTime.now());
+        TransactionCallbacks.afterCommit(() -> revokedFamilies.put(familyId, Boolean.TRUE));
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.refresh-tokens.purge-interval:PT1H}")
+    public void purgeExpired() {
+        LocalDateTime now = LocalDateTime.now();
+        int purged = 0;
+        int deleted;
+        do {
+            deleted = transactionTemplate.execute(status -> {
+                List<String> ids = familyRepository.findExpiredIds(now, Limit.of(purgeBatchSize));
+                return ids.isEmpty() ? 0 : familyRepository.deleteByIdIn(ids);
+            });
+            purged += deleted;
+        } while (deleted == purgeBatchSize);
+        if (purged > 0) {
+            log.info("Purged {} expired refresh token families", purged);
+        }
+    }
+
+    private Instant nextExpiry() {
+        return Instant.now().plusMillis(jwtUtils.getRefreshExpirationMs());
+    }
+
+    private static LocalDateTime toLocal(Instant instant) {
+        return LocalDateTime.ofInstant(instant, ZoneId.systemDefault());
+    }
+
+}
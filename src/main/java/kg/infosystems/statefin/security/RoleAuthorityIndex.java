@@ -0,0 +1,131 @@
+package kg.infosystems.statefin.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.github.benmanes.caffeine.cache.Ticker;
+import kg.infosystems.statefin.entity.Role;
+import kg.infosystems.statefin.repository.RoleRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Effective authorities per role, computed once from the role's active permissions and reused by every principal
+ * that holds the role. Authority instances are interned by name.
+ * <p>
+ * Each entry records the role's persisted authz_version, which every RBAC change bumps, and is only reused while that
+ * version is current. Versions are read through a cache with the same bound as the per-user authz versions
+ * ({@code app.security.authz-version-cache.expire-after-write}), so a change made on another instance is picked up
+ * within that bound; local changes take effect on commit. Permissions are read as scalars rather than from the
+ * second-level cache, which other instances' changes do not reach.
+ */
+@Component
+public class RoleAuthorityIndex {
+
+    private static final long UNKNOWN_ROLE = -1L;
+
+    private final RoleRepository roleRepository;
+    private final Cache<Long, Entry> byRole;
+    private final LoadingCache<Long, Long> versions;
+    private final Map<String, GrantedAuthority> interned = new ConcurrentHashMap<>();
+
+    @Autowired
+    public RoleAuthorityIndex(RoleRepository roleRepository,
+                              @Value("${app.security.role-authorities.maximum-size:1000}") long maximumSize,
+                              @Value("${app.security.role-authorities.expire-after-write:10m}") Duration expireAfterWrite,
+                              @Value("${app.security.authz-version-cache.expire-after-write:60s}") Duration versionTtl) {
+        this(roleRepository, maximumSize, expireAfterWrite, versionTtl, Ticker.systemTicker());
+    }
+
+    RoleAuthorityIndex(RoleRepository roleRepository, long maximumSize, Duration expireAfterWrite, Duration versionTtl,
+                       Ticker ticker) {
+        this.roleRepository = roleRepository;
+        this.byRole = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .ticker(ticker)
+                .build();
+        this.versions = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(versionTtl)
+                .ticker(ticker)
+                .build(roleId -> roleRepository.findAuthzVersionById(roleId).orElse(UNKNOWN_ROLE));
+    }
+
+    public RoleAuthorities authoritiesOf(Collection<Role> roles) {
+        if (roles.size() == 1) {
+            return authoritiesOf(roles.iterator().next().getId());
+        }
+        PermissionBitSet bits = PermissionBitSet.EMPTY;
+        Set<GrantedAuthority> authorities = new LinkedHashSet<>();
+        for (Role role : roles) {
+            RoleAuthorities roleAuthorities = authoritiesOf(role.getId());
+            bits = bits.or(roleAuthorities.bits());
+            authorities.addAll(roleAuthorities.authorities());
+        }
+        return new RoleAuthorities(bits, List.copyOf(authorities), Set.of());
+    }
+
+    public void roleChanged(Long roleId) {
+        TransactionCallbacks.afterCommit(() -> {
+            versions.invalidate(roleId);
+            byRole.invalidate(roleId);
+        });
+    }
+
+    public void permissionChanged(Long permissionId) {
+        TransactionCallbacks.afterCommit(() -> {
+            versions.invalidateAll();
+            byRole.asMap().values().removeIf(entry -> entry.authorities().permissionIds().contains(permissionId));
+        });
+    }
+
+    private RoleAuthorities authoritiesOf(Long roleId) {
+        Entry cached = byRole.getIfPresent(roleId);
+        // Versions only grow; an entry computed after the cached version was read is newer, not stale.
+        if (cached != null && cached.version() >= versions.get(roleId)) {
+            return cached.authorities();
+        }
+        // Read the version before the grants: a change committed in between leaves the entry labelled as older
+        // than it is, which only causes one more recompute.
+        long version = roleRepository.findAuthzVersionById(roleId).orElse(UNKNOWN_ROLE);
+        RoleAuthorities computed = compute(roleId);
+        versions.put(roleId, version);
+        byRole.put(roleId, new Entry(version, computed));
+        return computed;
+    }
+
+    private RoleAuthorities compute(Long roleId) {
+        List<GrantedAuthority> authorities = new ArrayList<>();
+        List<Long> permissionIds = new ArrayList<>();
+        List<Integer> ordinals = new ArrayList<>();
+        for (RoleRepository.PermissionGrant grant : roleRepository.findPermissionGrantsByRoleId(roleId)) {
+            permissionIds.add(grant.getId());
+            if (Boolean.TRUE.equals(grant.getActive())) {
+                authorities.add(interned.computeIfAbsent(grant.getName(), SimpleGrantedAuthority::new));
+                ordinals.add(PermissionIndex.ordinalOfId(grant.getId()));
+            }
+        }
+        return new RoleAuthorities(PermissionBitSet.of(ordinals.stream().mapToInt(Integer::intValue)),
+                List.copyOf(authorities), Set.copyOf(permissionIds));
+    }
+
+    private record Entry(long version, RoleAuthorities authorities) {
+    }
+
+    public record RoleAuthorities(PermissionBitSet bits, List<GrantedAuthority> authorities, Set<Long> permissionIds) {
+    }
+
+}
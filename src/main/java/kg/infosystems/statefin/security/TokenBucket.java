@@ -0,0 +1,59 @@
+package kg.infosystems.statefin.security;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token bucket kept as a single "theoretical arrival time" (the generic cell rate algorithm): each request pushes the
+ * time forward by one emission interval, and a request is admitted while that time is no further ahead of now than
+ * the burst allows. One {@link AtomicLong} and a compare-and-set per request, no lock and no refill task.
+ */
+final class TokenBucket {
+
+    private final AtomicLong theoreticalArrival = new AtomicLong(Long.MIN_VALUE);
+
+    /**
+     * @return 0 if a token was taken, otherwise the nanoseconds until one will be available
+     */
+    long tryConsume(Quota quota, long now) {
+        while (true) {
+            long current = theoreticalArrival.get();
+            long base = Math.max(current, now);
+            long wait = base - quota.burstToleranceNanos() - now;
+            if (wait > 0) {
+                return wait;
+            }
+            if (theoreticalArrival.compareAndSet(current, base + quota.emissionIntervalNanos())) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Gives back a token taken by {@link #tryConsume} for a request that was turned away by another quota.
+     */
+    void refund(Quota quota) {
+        theoreticalArrival.addAndGet(-quota.emissionIntervalNanos());
+    }
+
+    /**
+     * A sustained rate plus a burst: {@code burst} requests may arrive at once, after which one is admitted every
+     * {@code 1 / requestsPerSecond} seconds.
+     */
+    record Quota(String name, long emissionIntervalNanos, long burstToleranceNanos) {
+
+        static Quota of(String name, double requestsPerSecond, int burst) {
+            if (requestsPerSecond <= 0 || burst < 1) {
+                throw new IllegalArgumentException("Invalid rate limit for " + name + ": " + requestsPerSecond + "/s, burst " + burst);
+            }
+            long interval = (long) Math.ceil(1_000_000_000L / requestsPerSecond);
+            return new Quota(name, interval, interval * (burst - 1));
+        }
+
+        /** Time for an empty bucket to fill up again. */
+        long refillNanos() {
+            return emissionIntervalNanos + burstToleranceNanos;
+        }
+
+    }
+
+}
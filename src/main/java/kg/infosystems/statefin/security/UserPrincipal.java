@@ -3,13 +3,12 @@ package kg.infosystems.statefin.security;
 import kg.infosystems.statefin.entity.User;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
+import lombok.With;
 import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
+import java.time.LocalDateTime;
 import java.util.Collection;
-import java.util.List;
-import java.util.stream.Collectors;
 
 @AllArgsConstructor
 @Getter
@@ -18,17 +17,24 @@ public class UserPrincipal implements UserDetails {
     private Long id;
     private String username;
     private String email;
+    @With
     private String password;
     private boolean active;
+    private boolean accountNonLocked;
+    private long authzVersion;
+    private PermissionBitSet authorityBits;
     private Collection<? extends GrantedAuthority> authorities;
 
-    public static UserPrincipal create(User user) {
-        List<GrantedAuthority> authorities = user.getRoles().stream()
-                .flatMap(role -> role.getPermissions().stream())
-                .filter(permission -> permission.getActive())
-                .map(permission -> new SimpleGrantedAuthority(permission.getName()))
-                .distinct()
-                .collect(Collectors.toList());
+    /**
+     * Principal rebuilt from token claims. Lockout is enforced at login, so such a principal is never locked.
+     */
+    public UserPrincipal(Long id, String username, String email, String password, boolean active, long authzVersion,
+                         PermissionBitSet authorityBits, Collection<? extends GrantedAuthority> authorities) {
+        this(id, username, email, password, active, true, authzVersion, authorityBits, authorities);
+    }
+
+    public static UserPrincipal create(User user, RoleAuthorityIndex roleAuthorityIndex) {
+        RoleAuthorityIndex.RoleAuthorities granted = roleAuthorityIndex.authoritiesOf(user.getRoles());
 
         return new UserPrincipal(
                 user.getId(),
@@ -36,7 +42,10 @@ public class UserPrincipal implements UserDetails {
                 user.getEmail(),
                 user.getPassword(),
                 user.getActive(),
-                authorities
+                user.getLockedUntil() == null || user.getLockedUntil().isBefore(LocalDateTime.now()),
+                user.getAuthzVersion(),
+                granted.bits(),
+                granted.authorities()
         );
     }
 
@@ -62,7 +71,7 @@ public class UserPrincipal implements UserDetails {
 
     @Override
     public boolean isAccountNonLocked() {
-        return true;
+        return accountNonLocked;
     }
 
     @Override
@@ -24,9 +24,10 @@ public class JwtAuthenticationEntryPoint implements AuthenticationEntryPoint {
                         AuthenticationException authException) throws IOException {
         response.setStatus(HttpStatus.UNAUTHORIZED.value());
         response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        Object tokenError = request.getAttribute(JwtAuthenticationFilter.AUTHENTICATION_ERROR_ATTRIBUTE);
         ApiResponse<Object> errorResponse = ApiResponse.error(
             "Unauthorized", 
-            "Full authentication is required to access this resource"
+            tokenError != null ? tokenError.toString() : "Full authentication is required to access this resource"
         );
         response.getWriter().write(objectMapper.writeValueAsString(errorResponse));
     }
@@ -1,15 +1,16 @@
 package kg.infosystems.statefin.security.jwt;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import kg.infosystems.statefin.dto.response.ApiResponse;
+import kg.infosystems.statefin.security.AccessTokenDenylist;
+import kg.infosystems.statefin.security.AuthorizationVersionService;
 import kg.infosystems.statefin.security.CustomUserDetailsService;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
-import org.springframework.http.HttpStatus;
-import org.springframework.http.MediaType;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.CredentialsExpiredException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -24,34 +25,61 @@ import java.io.IOException;
 @RequiredArgsConstructor
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
-    private final JwtUtils jwtUtils;
+    public static final String AUTHENTICATION_ERROR_ATTRIBUTE = JwtAuthenticationFilter.class.getName() + ".ERROR";
+
+    private final VerifiedTokenCache verifiedTokenCache;
     private final CustomUserDetailsService userDetailsService;
-    private final ObjectMapper objectMapper;
+    private final AuthorizationVersionService authorizationVersionService;
+    private final AccessTokenDenylist accessTokenDenylist;
+
+    @Value("${jwt.stateless-authentication:false}")
+    private boolean statelessAuthentication;
 
+    /**
+     * A token that fails verification leaves the request anonymous instead of rejecting it, so public endpoints such
+     * as login and refresh stay reachable with a stale token; protected endpoints are then refused by the entry
+     * point, which reports the reason recorded here.
+     */
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, 
                                     FilterChain filterChain) throws ServletException, IOException {
-        try {
-            String jwt = parseJwt(request);
-            
-            if (jwt != null && jwtUtils.validateJwtToken(jwt)) {
-                String username = jwtUtils.getUserNameFromJwtToken(jwt);
-                
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+        String jwt = parseJwt(request);
+        if (jwt != null) {
+            try {
+                VerifiedTokenCache.VerifiedToken verifiedToken = verifiedTokenCache.get(jwt);
+                UserDetails userDetails = loadUserDetails(verifiedToken);
                 UsernamePasswordAuthenticationToken authentication = 
                     new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
                 authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                 
                 SecurityContextHolder.getContext().setAuthentication(authentication);
+            } catch (Exception e) {
+                SecurityContextHolder.clearContext();
+                request.setAttribute(AUTHENTICATION_ERROR_ATTRIBUTE, e instanceof CredentialsExpiredException
+                        ? e.getMessage() : "Invalid or expired token");
             }
-        } catch (Exception e) {
-            handleAuthenticationError(response, "Invalid or expired token");
-            return;
         }
         
         filterChain.doFilter(request, response);
     }
 
+    private UserDetails loadUserDetails(VerifiedTokenCache.VerifiedToken verifiedToken) {
+        if (verifiedToken.getPrincipal() == null) {
+            throw new BadCredentialsException("Refresh token cannot be used for authentication");
+        }
+        if (accessTokenDenylist.isRevoked(verifiedToken.getClaims())) {
+            throw new CredentialsExpiredException("Token has been revoked");
+        }
+        if (statelessAuthentication) {
+            JwtClaims claims = verifiedToken.getClaims();
+            if (!authorizationVersionService.isCurrent(claims.getUserId(), claims.getAuthzVersion())) {
+                throw new CredentialsExpiredException("Token authorities are outdated");
+            }
+            return verifiedToken.getPrincipal();
+        }
+        return userDetailsService.loadUserByUsername(verifiedToken.getClaims().getSubject());
+    }
+
     private String parseJwt(HttpServletRequest request) {
         String headerAuth = request.getHeader("Authorization");
         
@@ -62,13 +90,4 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         return null;
     }
 
-    private void handleAuthenticationError(HttpServletResponse response, String message) throws IOException {
-        response.setStatus(HttpStatus.UNAUTHORIZED.value());
-        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
-        
-        ApiResponse<Object> errorResponse = ApiResponse.error("Authentication failed", message);
-        
-        response.getWriter().write(objectMapper.writeValueAsString(errorResponse));
-    }
-
-}
\ No newline at end of file
+}
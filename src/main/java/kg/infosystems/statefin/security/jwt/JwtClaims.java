@@ -0,0 +1,59 @@
+package kg.infosystems.statefin.security.jwt;
+
+import io.jsonwebtoken.Claims;
+import kg.infosystems.statefin.security.PermissionBitSet;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.Instant;
+import java.util.List;
+
+@Getter
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public final class JwtClaims {
+
+    private final String subject;
+    private final Long userId;
+    private final String email;
+    private final PermissionBitSet permissions;
+    private final List<String> authorities;
+    private final Long authzVersion;
+    private final String tokenType;
+    private final String tokenId;
+    private final String familyId;
+    private final Instant issuedAt;
+    private final Instant expiration;
+
+    static JwtClaims from(Claims claims) {
+        Object userId = claims.get("userId");
+        Object permissions = claims.get("perms");
+        Object authorities = claims.get("authorities");
+        Object authzVersion = claims.get("authzVersion");
+
+        return new JwtClaims(
+                claims.getSubject(),
+                userId != null ? Long.valueOf(userId.toString()) : null,
+                claims.get("email", String.class),
+                permissions != null ? PermissionBitSet.decode(permissions.toString()) : PermissionBitSet.EMPTY,
+                authorities instanceof List<?> list
+                        ? list.stream().map(Object::toString).toList()
+                        : List.of(),
+                authzVersion != null ? Long.valueOf(authzVersion.toString()) : null,
+                claims.get("tokenType", String.class),
+                claims.getId(),
+                claims.get("fid", String.class),
+                claims.getIssuedAt() != null ? claims.getIssuedAt().toInstant() : null,
+                claims.getExpiration() != null ? claims.getExpiration().toInstant() : null
+        );
+    }
+
+    public boolean isRefreshToken() {
+        return "refresh".equals(tokenType);
+    }
+
+    public boolean isExpired() {
+        return expiration != null && expiration.isBefore(Instant.now());
+    }
+
+}
@@ -0,0 +1,261 @@
+package kg.infosystems.statefin.security.jwt;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Jwks;
+import io.jsonwebtoken.security.KeyPairBuilderSupplier;
+import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.PublicJwk;
+import io.jsonwebtoken.security.SecureDigestAlgorithm;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.KeyPair;
+import java.security.KeyStore;
+import java.security.cert.Certificate;
+import java.security.cert.X509Certificate;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Holds the keys used to sign and verify tokens. Readers see an immutable snapshot, so signing and kid lookups
+ * never lock.
+ * <p>
+ * Asymmetric keys come from a PKCS12 key store shared by all instances, re-read every rotation check. Unless
+ * {@code jwt.signing.active-key-id} pins one, the active key is the one whose certificate became valid most recently;
+ * a key whose certificate is not yet valid is published ahead as the next key, and a superseded key stays published
+ * until every token it signed has expired. Rotating means adding a key with a future start date to the store.
+ * <p>
+ * Keys generated in memory are lost on restart and differ between instances, invalidating every token the others
+ * issued, so they are only used when {@code jwt.signing.generate-keys} is set for a single development instance.
+ */
+@Slf4j
+@Component
+public class JwtKeyManager {
+
+    static final String HMAC_KEY_ID = "hs256";
+
+    private final SecureDigestAlgorithm<?, ?> algorithm;
+    private final KeyPairBuilderSupplier keyPairSupplier;
+    private final Duration rotationInterval;
+    private final Duration retiredKeyTtl;
+    private final String keyStoreLocation;
+    private final String keyStorePassword;
+    private final String activeKeyId;
+
+    private volatile KeySet keySet;
+
+    public JwtKeyManager(@Value("${jwt.signing.algorithm:HS256}") String algorithm,
+                         @Value("${jwt.secret}") String jwtSecret,
+                         @Value("${jwt.signing.rotation-interval:7d}") Duration rotationInterval,
+                         @Value("${jwt.signing.generate-keys:false}") boolean generateKeys,
+                         @Value("${jwt.signing.key-store:}") String keyStoreLocation,
+                         @Value("${jwt.signing.key-store-password:}") String keyStorePassword,
+                         @Value("${jwt.signing.active-key-id:}") String activeKeyId,
+                         @Value("${jwt.expiration}") long jwtExpirationMs,
+                         @Value("${jwt.refresh-expiration}") long refreshExpirationMs) {
+        this.retiredKeyTtl = Duration.ofMillis(Math.max(jwtExpirationMs, refreshExpirationMs));
+        this.keyStorePassword = keyStorePassword;
+        this.activeKeyId = activeKeyId;
+        Instant now = Instant.now();
+
+        switch (algorithm) {
+            case "HS256" -> {
+                this.algorithm = Jwts.SIG.HS256;
+                this.keyPairSupplier = null;
+                this.rotationInterval = Duration.ZERO;
+                this.keyStoreLocation = null;
+                JwtSigningKey key = JwtSigningKey.hmac(HMAC_KEY_ID, Jwts.SIG.HS256, Keys.hmacShaKeyFor(jwtSecret.getBytes()), now);
+                this.keySet = KeySet.of(key, null, List.of(key));
+            }
+            case "ES256", "EdDSA" -> {
+                this.algorithm = Jwts.SIG.get().forKey(algorithm);
+                if (StringUtils.hasText(keyStoreLocation)) {
+                    this.keyPairSupplier = null;
+                    this.rotationInterval = Duration.ZERO;
+                    this.keyStoreLocation = keyStoreLocation;
+                    this.keySet = loadKeyStore(now);
+                } else if (generateKeys) {
+                    this.keyPairSupplier = "ES256".equals(algorithm) ? Jwts.SIG.ES256 : Jwks.CRV.Ed25519;
+                    this.rotationInterval = rotationInterval;
+                    this.keyStoreLocation = null;
+                    JwtSigningKey active = generate().withActivatedAt(now);
+                    JwtSigningKey next = isRotating() ? generate() : null;
+                    this.keySet = KeySet.of(active, next, next != null ? List.of(active, next) : List.of(active));
+                } else {
+                    throw new IllegalStateException("jwt.signing.key-store is required for " + algorithm
+                            + " so that keys survive restarts and are shared by all instances; "
+                            + "set jwt.signing.generate-keys=true only for a single development instance");
+                }
+            }
+            default -> throw new IllegalStateException("Unsupported jwt.signing.algorithm: " + algorithm);
+        }
+    }
+
+    public JwtSigningKey activeKey() {
+        return keySet.active();
+    }
+
+    public Key verificationKey(String keyId) {
+        KeySet current = keySet;
+        if (keyId == null) {
+            return current.active().isPublished() ? null : current.active().getVerificationKey();
+        }
+        JwtSigningKey key = current.keysById().get(keyId);
+        return key != null ? key.getVerificationKey() : null;
+    }
+
+    public List<PublicJwk<?>> publishedKeys() {
+        return keySet.published();
+    }
+
+    public boolean isRotating() {
+        return keyPairSupplier != null && rotationInterval.isPositive();
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.signing.rotation-check-interval:PT1M}")
+    public synchronized void rotateIfDue() {
+        Instant now = Instant.now();
+        if (keyStoreLocation != null) {
+            try {
+                keySet = loadKeyStore(now);
+            } catch (IllegalStateException e) {
+                log.error("Keeping the current JWT signing keys", e);
+            }
+            return;
+        }
+        if (!isRotating()) {
+            return;
+        }
+        KeySet current = keySet;
+        if (!current.active().getActivatedAt().plus(rotationInterval).isAfter(now)) {
+            rotate(now);
+        } else if (current.keysById().values().stream().anyMatch(key -> isExpired(key, now))) {
+            replace(current.active(), current.next(), current.keysById().values(), now);
+        }
+    }
+
+    public synchronized void rotate() {
+        if (!isRotating()) {
+            throw new IllegalStateException("Key rotation on demand is only available for generated asymmetric keys");
+        }
+        rotate(Instant.now());
+    }
+
+    private void rotate(Instant now) {
+        KeySet current = keySet;
+        List<JwtSigningKey> keys = new ArrayList<>(current.keysById().values());
+        keys.replaceAll(key -> key == current.active() ? key.withRetiredAt(now) : key);
+        replace(current.next().withActivatedAt(now), generate(), keys, now);
+    }
+
+    private void replace(JwtSigningKey active, JwtSigningKey next, Collection<JwtSigningKey> keys, Instant now) {
+        List<JwtSigningKey> retained = new ArrayList<>();
+        keys.stream().filter(key -> !isExpired(key, now)).forEach(retained::add);
+        retained.add(next);
+        keySet = KeySet.of(active, next, retained);
+    }
+
+    private boolean isExpired(JwtSigningKey key, Instant now) {
+        return key.getRetiredAt() != null && key.getRetiredAt().plus(retiredKeyTtl).isBefore(now);
+    }
+
+    private JwtSigningKey generate() {
+        return JwtSigningKey.asymmetric(null, algorithm, keyPairSupplier.keyPair().build());
+    }
+
+    private KeySet loadKeyStore(Instant now) {
+        char[] secret = keyStorePassword.toCharArray();
+        try (InputStream in = new DefaultResourceLoader().getResource(keyStoreLocation).getInputStream()) {
+            KeyStore keyStore = KeyStore.getInstance("PKCS12");
+            keyStore.load(in, secret);
+            List<JwtSigningKey> keys = new ArrayList<>();
+            for (String alias : Collections.list(keyStore.aliases())) {
+                if (keyStore.getEntry(alias, new KeyStore.PasswordProtection(secret)) instanceof KeyStore.PrivateKeyEntry entry) {
+                    KeyPair keyPair = new KeyPair(entry.getCertificate().getPublicKey(), entry.getPrivateKey());
+                    keys.add(JwtSigningKey.asymmetric(alias, algorithm, keyPair).withActivatedAt(validFrom(entry.getCertificate())));
+                }
+            }
+            return StringUtils.hasText(activeKeyId) ? pinned(keys) : scheduled(keys, now);
+        } catch (IOException | GeneralSecurityException e) {
+            throw new IllegalStateException("Unable to load JWT signing keys from " + keyStoreLocation, e);
+        }
+    }
+
+    private KeySet pinned(List<JwtSigningKey> keys) {
+        JwtSigningKey active = keys.stream()
+                .filter(key -> key.getKeyId().equals(activeKeyId))
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("jwt.signing.active-key-id does not name a private key in " + keyStoreLocation));
+        return KeySet.of(active, null, keys);
+    }
+
+    /**
+     * Orders the keys by certificate start date: the latest one already valid signs, the first one not yet valid is
+     * next, and each earlier key retires when its successor starts.
+     */
+    private KeySet scheduled(List<JwtSigningKey> keys, Instant now) {
+        keys.sort(Comparator.comparing(JwtSigningKey::getActivatedAt));
+        JwtSigningKey active = null;
+        JwtSigningKey next = null;
+        List<JwtSigningKey> retained = new ArrayList<>();
+        for (int i = 0; i < keys.size(); i++) {
+            JwtSigningKey key = keys.get(i);
+            if (key.getActivatedAt().isAfter(now)) {
+                if (next == null) {
+                    next = key;
+                }
+                retained.add(key);
+                continue;
+            }
+            JwtSigningKey successor = i + 1 < keys.size() ? keys.get(i + 1) : null;
+            if (successor == null || successor.getActivatedAt().isAfter(now)) {
+                active = key;
+                retained.add(key);
+            } else {
+                JwtSigningKey retired = key.withRetiredAt(successor.getActivatedAt());
+                if (!isExpired(retired, now)) {
+                    retained.add(retired);
+                }
+            }
+        }
+        if (active == null) {
+            throw new IllegalStateException("No JWT signing key in " + keyStoreLocation + " is valid yet");
+        }
+        return KeySet.of(active, next, retained);
+    }
+
+    private static Instant validFrom(Certificate certificate) {
+        return certificate instanceof X509Certificate x509 ? x509.getNotBefore().toInstant() : Instant.EPOCH;
+    }
+
+    private record KeySet(JwtSigningKey active, JwtSigningKey next, Map<String, JwtSigningKey> keysById,
+                          List<PublicJwk<?>> published) {
+
+        static KeySet of(JwtSigningKey active, JwtSigningKey next, List<JwtSigningKey> keys) {
+            Map<String, JwtSigningKey> byId = new LinkedHashMap<>();
+            keys.forEach(key -> byId.put(key.getKeyId(), key));
+            byId.put(active.getKeyId(), active);
+            List<PublicJwk<?>> published = byId.values().stream()
+                    .filter(JwtSigningKey::isPublished)
+                    .<PublicJwk<?>>map(JwtSigningKey::getJwk)
+                    .toList();
+            return new KeySet(active, next, Collections.unmodifiableMap(byId), published);
+        }
+    }
+
+}
@@ -0,0 +1,53 @@
+package kg.infosystems.statefin.security.jwt;
+
+import io.jsonwebtoken.JwtBuilder;
+import io.jsonwebtoken.security.Jwks;
+import io.jsonwebtoken.security.PublicJwk;
+import io.jsonwebtoken.security.SecureDigestAlgorithm;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.With;
+
+import javax.crypto.SecretKey;
+import java.security.Key;
+import java.security.KeyPair;
+import java.time.Instant;
+
+@Getter
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public final class JwtSigningKey {
+
+    private final String keyId;
+    private final SecureDigestAlgorithm<?, ?> algorithm;
+    private final Key signingKey;
+    private final Key verificationKey;
+    private final PublicJwk<?> jwk;
+    @With
+    private final Instant activatedAt;
+    @With
+    private final Instant retiredAt;
+
+    static JwtSigningKey hmac(String keyId, SecureDigestAlgorithm<?, ?> algorithm, SecretKey key, Instant activatedAt) {
+        return new JwtSigningKey(keyId, algorithm, key, key, null, activatedAt, null);
+    }
+
+    static JwtSigningKey asymmetric(String keyId, SecureDigestAlgorithm<?, ?> algorithm, KeyPair keyPair) {
+        PublicJwk<?> jwk = keyId != null
+                ? Jwks.builder().key(keyPair.getPublic()).id(keyId).algorithm(algorithm.getId()).publicKeyUse("sig").build()
+                : Jwks.builder().key(keyPair.getPublic()).idFromThumbprint().algorithm(algorithm.getId()).publicKeyUse("sig").build();
+        return new JwtSigningKey(jwk.getId(), algorithm, keyPair.getPrivate(), keyPair.getPublic(), jwk, null, null);
+    }
+
+    @SuppressWarnings("unchecked")
+    JwtBuilder sign(JwtBuilder builder) {
+        return builder
+                .header().keyId(keyId).and()
+                .signWith(signingKey, (SecureDigestAlgorithm<Key, ?>) algorithm);
+    }
+
+    boolean isPublished() {
+        return jwk != null;
+    }
+
+}
@@ -1,25 +1,33 @@
 package kg.infosystems.statefin.security.jwt;
 
+import kg.infosystems.statefin.security.PermissionBitSet;
+import kg.infosystems.statefin.security.PermissionIndex;
 import kg.infosystems.statefin.security.UserPrincipal;
 import io.jsonwebtoken.*;
-import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.stereotype.Component;
 
-import javax.crypto.SecretKey;
+import java.security.Key;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Date;
 import java.util.List;
+import java.util.UUID;
 import java.util.stream.Collectors;
 
 @Component
+@RequiredArgsConstructor
 public class JwtUtils {
 
-    @Value("${jwt.secret}")
-    private String jwtSecret;
+    private final PermissionIndex permissionIndex;
+    private final JwtKeyManager keyManager;
 
     @Value("${jwt.expiration}")
     private long jwtExpirationMs;
@@ -27,85 +35,123 @@ public class JwtUtils {
     @Value("${jwt.refresh-expiration}")
     private long refreshExpirationMs;
 
-    private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(jwtSecret.getBytes());
+    private JwtParser jwtParser;
+
+    @PostConstruct
+    public void init() {
+        jwtParser = Jwts.parser()
+                .keyLocator(new LocatorAdapter<>() {
+                    @Override
+                    protected Key locate(JwsHeader header) {
+                        Key key = keyManager.verificationKey(header.getKeyId());
+                        if (key == null) {
+                            throw new UnsupportedJwtException("Unknown signing key: " + header.getKeyId());
+                        }
+                        return key;
+                    }
+                })
+                .build();
     }
 
+    /**
+     * Access tokens carry a random {@code jti} so a single token can be revoked before it expires.
+     */
     public String generateJwtToken(Authentication authentication) {
         UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
         
-        List<String> authorities = userPrincipal.getAuthorities()
-                .stream()
-                .map(GrantedAuthority::getAuthority)
-                .collect(Collectors.toList());
+        BitSet permissionBits = new BitSet();
+        List<String> unindexedAuthorities = new ArrayList<>();
+        for (GrantedAuthority authority : userPrincipal.getAuthorities()) {
+            int ordinal = permissionIndex.ordinalOf(authority.getAuthority());
+            if (ordinal >= 0) {
+                permissionBits.set(ordinal);
+            } else {
+                unindexedAuthorities.add(authority.getAuthority());
+            }
+        }
 
         Instant now = Instant.now();
         Instant expiryDate = now.plus(jwtExpirationMs, ChronoUnit.MILLIS);
 
-        return Jwts.builder()
+        JwtBuilder builder = Jwts.builder()
+                .setId(UUID.randomUUID().toString())
                 .setSubject(userPrincipal.getUsername())
                 .setIssuedAt(Date.from(now))
                 .setExpiration(Date.from(expiryDate))
                 .claim("userId", userPrincipal.getId())
                 .claim("email", userPrincipal.getEmail())
-                .claim("authorities", authorities)
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
-                .compact();
+                .claim("perms", PermissionBitSet.of(permissionBits.stream()).encode())
+                .claim("authzVersion", userPrincipal.getAuthzVersion());
+        if (!unindexedAuthorities.isEmpty()) {
+            builder.claim("authorities", unindexedAuthorities);
+        }
+        return keyManager.activeKey().sign(builder).compact();
     }
 
-    public String generateRefreshToken(Authentication authentication) {
+    /**
+     * Refresh tokens carry their own id ({@code jti}) and the id of the login session they belong to ({@code fid}),
+     * which the refresh token store checks on every use.
+     */
+    public String generateRefreshToken(Authentication authentication, String familyId, String tokenId,
+                                       Instant expiresAt) {
         UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
-        
-        Instant now = Instant.now();
-        Instant expiryDate = now.plus(refreshExpirationMs, ChronoUnit.MILLIS);
 
-        return Jwts.builder()
+        JwtBuilder builder = Jwts.builder()
+                .setId(tokenId)
                 .setSubject(userPrincipal.getUsername())
-                .setIssuedAt(Date.from(now))
-                .setExpiration(Date.from(expiryDate))
+                .setIssuedAt(Date.from(Instant.now()))
+                .setExpiration(Date.from(expiresAt))
                 .claim("userId", userPrincipal.getId())
-                .claim("tokenType", "refresh")
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
-                .compact();
+                .claim("fid", familyId)
+                .claim("tokenType", "refresh");
+        return keyManager.activeKey().sign(builder).compact();
+    }
+
+    public JwtClaims parseJwtToken(String token) {
+        return JwtClaims.from(jwtParser.parseSignedClaims(token).getPayload());
+    }
+
+    public UserPrincipal buildUserPrincipal(JwtClaims claims) {
+        if (claims.isRefreshToken()) {
+            throw new JwtException("Refresh token cannot be used for authentication");
+        }
+        List<GrantedAuthority> authorities = new ArrayList<>(permissionIndex.authoritiesOf(claims.getPermissions()));
+        claims.getAuthorities().forEach(name -> authorities.add(new SimpleGrantedAuthority(name)));
+
+        return new UserPrincipal(
+                claims.getUserId(),
+                claims.getSubject(),
+                claims.getEmail(),
+                null,
+                true,
+                claims.getAuthzVersion() != null ? claims.getAuthzVersion() : 0L,
+                claims.getPermissions(),
+                List.copyOf(authorities)
+        );
+    }
+
+    public UserPrincipal getUserPrincipalFromJwtToken(String token) {
+        return buildUserPrincipal(parseJwtToken(token));
     }
 
     public String getUserNameFromJwtToken(String token) {
-        Claims claims = Jwts.parser()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-        
-        return claims.getSubject();
+        return parseJwtToken(token).getSubject();
     }
 
     public Long getUserIdFromJwtToken(String token) {
-        Claims claims = Jwts.parser()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-        
-        return Long.valueOf(claims.get("userId").toString());
+        return parseJwtToken(token).getUserId();
     }
 
-    @SuppressWarnings("unchecked")
     public List<String> getAuthoritiesFromJwtToken(String token) {
-        Claims claims = Jwts.parser()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-        
-        return (List<String>) claims.get("authorities");
+        return getUserPrincipalFromJwtToken(token).getAuthorities()
+                .stream()
+                .map(GrantedAuthority::getAuthority)
+                .collect(Collectors.toList());
     }
 
     public boolean validateJwtToken(String authToken) {
         try {
-            Jwts.parser()
-                    .setSigningKey(getSigningKey())
-                    .build()
-                    .parseClaimsJws(authToken);
+            parseJwtToken(authToken);
             return true;
         } catch (Exception e) {
             return false;
@@ -114,30 +160,22 @@ public class JwtUtils {
 
     public boolean isTokenExpired(String token) {
         try {
-            Claims claims = Jwts.parser()
-                    .setSigningKey(getSigningKey())
-                    .build()
-                    .parseClaimsJws(token)
-                    .getBody();
-            
-            return claims.getExpiration().before(new Date());
+            return parseJwtToken(token).isExpired();
         } catch (Exception e) {
             return true;
         }
     }
 
     public Date getExpirationDateFromToken(String token) {
-        Claims claims = Jwts.parser()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-        
-        return claims.getExpiration();
+        return Date.from(parseJwtToken(token).getExpiration());
     }
 
     public long getJwtExpirationMs() {
         return jwtExpirationMs;
     }
 
+    public long getRefreshExpirationMs() {
+        return refreshExpirationMs;
+    }
+
 }
\ No newline at end of file
@@ -1,19 +1,31 @@
 package kg.infosystems.statefin.service;
 
 import kg.infosystems.statefin.dto.request.LoginRequest;
+import kg.infosystems.statefin.dto.request.LogoutRequest;
 import kg.infosystems.statefin.dto.request.RefreshTokenRequest;
 import kg.infosystems.statefin.dto.response.LoginResponse;
 import kg.infosystems.statefin.dto.response.UserResponse;
+import kg.infosystems.statefin.entity.User;
 import kg.infosystems.statefin.exception.InvalidTokenException;
-import kg.infosystems.statefin.security.CustomUserDetailsService;
+import kg.infosystems.statefin.repository.UserRepository;
+import kg.infosystems.statefin.security.AccessTokenDenylist;
+import kg.infosystems.statefin.security.LoginAttemptService;
+import kg.infosystems.statefin.security.RefreshTokenService;
+import kg.infosystems.statefin.security.RoleAuthorityIndex;
 import kg.infosystems.statefin.security.UserPrincipal;
+import kg.infosystems.statefin.security.jwt.JwtClaims;
 import kg.infosystems.statefin.security.jwt.JwtUtils;
+import io.jsonwebtoken.JwtException;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.AuthenticationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Objects;
 
 @Service
 @RequiredArgsConstructor
@@ -22,9 +34,14 @@ public class AuthService {
     private final AuthenticationManager authenticationManager;
     private final JwtUtils jwtUtils;
     private final UserService userService;
-    private final CustomUserDetailsService userDetailsService;
+    private final UserRepository userRepository;
+    private final RoleAuthorityIndex roleAuthorityIndex;
+    private final RefreshTokenService refreshTokenService;
+    private final AccessTokenDenylist accessTokenDenylist;
+    private final LoginAttemptService loginAttemptService;
 
-    public LoginResponse login(LoginRequest loginRequest) {
+    public LoginResponse login(LoginRequest loginRequest, String clientAddress) {
+        loginAttemptService.beforeAttempt(loginRequest.getUsername(), clientAddress);
         try {
             Authentication authentication = authenticationManager.authenticate(
                     new UsernamePasswordAuthenticationToken(
@@ -32,8 +49,9 @@ public class AuthService {
                             loginRequest.getPassword()
                     )
             );
+            loginAttemptService.loginSucceeded((UserPrincipal) authentication.getPrincipal());
             String accessToken = jwtUtils.generateJwtToken(authentication);
-            String refreshToken = jwtUtils.generateRefreshToken(authentication);
+            String refreshToken = refreshTokenService.issue(authentication);
             UserResponse userResponse = userService.getUserByUsername(authentication.getName());
             return new LoginResponse(
                     accessToken,
@@ -41,32 +59,64 @@ public class AuthService {
                     jwtUtils.getJwtExpirationMs() / 1000,
                     userResponse
             );
+        } catch (BadCredentialsException e) {
+            loginAttemptService.loginFailed(loginRequest.getUsername());
+            throw new AuthenticationException("Invalid username or password") {};
         } catch (AuthenticationException e) {
             throw new AuthenticationException("Invalid username or password") {};
         }
     }
 
+    /**
+     * The user is loaded once, with roles, and serves both the new tokens and the response body.
+     */
+    @Transactional(noRollbackFor = InvalidTokenException.class)
     public LoginResponse refreshToken(RefreshTokenRequest refreshTokenRequest) {
-        String refreshToken = refreshTokenRequest.getRefreshToken();
-        if (!jwtUtils.validateJwtToken(refreshToken)) {
-            throw new InvalidTokenException("Invalid refresh token");
-        }
-        if (jwtUtils.isTokenExpired(refreshToken)) {
-            throw new InvalidTokenException("Refresh token has expired");
-        }
-        String username = jwtUtils.getUserNameFromJwtToken(refreshToken);
-        UserResponse userResponse = userService.getUserByUsername(username);
-        UserPrincipal userPrincipal = (UserPrincipal) userDetailsService.loadUserByUsername(username);
+        JwtClaims claims = refreshTokenService.verify(refreshTokenRequest.getRefreshToken());
+        User user = userRepository.findByIdWithRoles(claims.getUserId())
+                .orElseThrow(() -> new InvalidTokenException("Invalid refresh token"));
+        UserPrincipal userPrincipal = UserPrincipal.create(user, roleAuthorityIndex);
         Authentication authentication = new UsernamePasswordAuthenticationToken(
                 userPrincipal, null, userPrincipal.getAuthorities());
+        String newRefreshToken = refreshTokenService.rotate(claims, authentication);
         String newAccessToken = jwtUtils.generateJwtToken(authentication);
-        String newRefreshToken = jwtUtils.generateRefreshToken(authentication);
         return new LoginResponse(
                 newAccessToken,
                 newRefreshToken,
                 jwtUtils.getJwtExpirationMs() / 1000,
-                userResponse
+                userService.toUserResponse(user)
         );
     }
 
-}
\ No newline at end of file
+    /**
+     * Revokes the presented access token and, if a refresh token is given, the login session it belongs to. A refresh
+     * token that is invalid, expired, already revoked or another user's leaves no session to end and is ignored.
+     */
+    @Transactional(noRollbackFor = InvalidTokenException.class)
+    public void logout(String accessToken, LogoutRequest logoutRequest) {
+        JwtClaims claims;
+        try {
+            claims = jwtUtils.parseJwtToken(accessToken);
+        } catch (JwtException | IllegalArgumentException e) {
+            throw new InvalidTokenException("Invalid access token", e);
+        }
+        if (claims.isRefreshToken() || claims.getTokenId() == null) {
+            throw new InvalidTokenException("Invalid access token");
+        }
+        accessTokenDenylist.revoke(claims);
+        String refreshToken = logoutRequest != null ? logoutRequest.getRefreshToken() : null;
+        if (refreshToken == null) {
+            return;
+        }
+        JwtClaims refreshClaims;
+        try {
+            refreshClaims = refreshTokenService.verify(refreshToken);
+        } catch (InvalidTokenException e) {
+            return;
+        }
+        if (Objects.equals(refreshClaims.getUserId(), claims.getUserId())) {
+            refreshTokenService.revoke(refreshClaims.getFamilyId());
+        }
+    }
+
+}
@@ -0,0 +1,148 @@
+package kg.infosystems.statefin.service;
+
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Maintains user_effective_permissions, the flattened user to permission pairs derived from user_roles and
+ * role_permissions. Each role or permission assignment applies only the rows it affects, in the caller's transaction
+ * and after pending entity changes are flushed. Active flags are not materialized; readers filter on them.
+ * {@link #rebuild()} runs nightly as a repair job: it inserts missing rows and deletes stale ones, leaving correct rows
+ * in place, so readers never see the table emptied. On PostgreSQL a transaction-scoped advisory lock lets only one
+ * instance repair at a time; the others skip the run.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class EffectivePermissionService {
+
+    private static final String GRANT_ROLE_TO_USER_SQL = """
+            INSERT INTO user_effective_permissions (user_id, permission_id)
+            SELECT ?, rp.permission_id FROM role_permissions rp
+            WHERE rp.role_id = ?
+              AND NOT EXISTS (SELECT 1 FROM user_effective_permissions e
+                              WHERE e.user_id = ? AND e.permission_id = rp.permission_id)
+            """;
+    private static final String REVOKE_ROLE_FROM_USER_SQL = """
+            DELETE FROM user_effective_permissions e
+            WHERE e.user_id = ?
+              AND e.permission_id IN (SELECT rp.permission_id FROM role_permissions rp WHERE rp.role_id = ?)
+              AND NOT EXISTS (SELECT 1 FROM user_roles ur JOIN role_permissions rp ON rp.role_id = ur.role_id
+                              WHERE ur.user_id = e.user_id AND rp.permission_id = e.permission_id)
+            """;
+    private static final String GRANT_PERMISSION_TO_ROLE_SQL = """
+            INSERT INTO user_effective_permissions (user_id, permission_id)
+            SELECT ur.user_id, ? FROM user_roles ur
+            WHERE ur.role_id = ?
+              AND NOT EXISTS (SELECT 1 FROM user_effective_permissions e
+                              WHERE e.user_id = ur.user_id AND e.permission_id = ?)
+            """;
+    private static final String REVOKE_PERMISSION_FROM_ROLE_SQL = """
+            DELETE FROM user_effective_permissions e
+            WHERE e.permission_id = ?
+              AND e.user_id IN (SELECT ur.user_id FROM user_roles ur WHERE ur.role_id = ?)
+              AND NOT EXISTS (SELECT 1 FROM user_roles ur JOIN role_permissions rp ON rp.role_id = ur.role_id
+                              WHERE ur.user_id = e.user_id AND rp.permission_id = e.permission_id)
+            """;
+    private static final String DELETE_USERS_SQL = "DELETE FROM user_effective_permissions WHERE user_id IN (:userIds)";
+    private static final String INSERT_USERS_SQL = """
+            INSERT INTO user_effective_permissions (user_id, permission_id)
+            SELECT DISTINCT ur.user_id, rp.permission_id
+            FROM user_roles ur JOIN role_permissions rp ON rp.role_id = ur.role_id
+            WHERE ur.user_id IN (:userIds)
+            """;
+    private static final String INSERT_MISSING_SQL = """
+            INSERT INTO user_effective_permissions (user_id, permission_id)
+            SELECT DISTINCT ur.user_id, rp.permission_id
+            FROM user_roles ur JOIN role_permissions rp ON rp.role_id = ur.role_id
+            WHERE NOT EXISTS (SELECT 1 FROM user_effective_permissions e
+                              WHERE e.user_id = ur.user_id AND e.permission_id = rp.permission_id)
+            """;
+    private static final String DELETE_STALE_SQL = """
+            DELETE FROM user_effective_permissions e
+            WHERE NOT EXISTS (SELECT 1 FROM user_roles ur JOIN role_permissions rp ON rp.role_id = ur.role_id
+                              WHERE ur.user_id = e.user_id AND rp.permission_id = e.permission_id)
+            """;
+    private static final String TRY_REBUILD_LOCK_SQL = "SELECT pg_try_advisory_xact_lock(?)";
+    private static final long REBUILD_LOCK_KEY = "user_effective_permissions".hashCode();
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private final EntityManager entityManager;
+
+    private volatile Boolean postgres;
+
+    @Transactional
+    public void roleAssigned(Long userId, Long roleId) {
+        entityManager.flush();
+        jdbcTemplate.update(GRANT_ROLE_TO_USER_SQL, userId, roleId, userId);
+    }
+
+    @Transactional
+    public void roleRemoved(Long userId, Long roleId) {
+        entityManager.flush();
+        jdbcTemplate.update(REVOKE_ROLE_FROM_USER_SQL, userId, roleId);
+    }
+
+    @Transactional
+    public void permissionGranted(Long roleId, Long permissionId) {
+        entityManager.flush();
+        jdbcTemplate.update(GRANT_PERMISSION_TO_ROLE_SQL, permissionId, roleId, permissionId);
+    }
+
+    @Transactional
+    public void permissionRevoked(Long roleId, Long permissionId) {
+        entityManager.flush();
+        jdbcTemplate.update(REVOKE_PERMISSION_FROM_ROLE_SQL, permissionId, roleId);
+    }
+
+    /**
+     * Recomputes the rows of the given users from their current roles, for writes that replace a user's roles
+     * wholesale, such as creation and bulk import.
+     */
+    @Transactional
+    public void refreshUsers(Collection<Long> userIds) {
+        if (userIds.isEmpty()) {
+            return;
+        }
+        entityManager.flush();
+        Map<String, Collection<Long>> params = Map.of("userIds", userIds);
+        namedParameterJdbcTemplate.update(DELETE_USERS_SQL, params);
+        namedParameterJdbcTemplate.update(INSERT_USERS_SQL, params);
+    }
+
+    @Transactional
+    @Scheduled(cron = "${app.effective-permissions.rebuild-cron:0 30 3 * * *}")
+    public void rebuild() {
+        if (!tryRebuildLock()) {
+            log.info("Skipping user_effective_permissions rebuild, another instance holds the lock");
+            return;
+        }
+        entityManager.flush();
+        int inserted = jdbcTemplate.update(INSERT_MISSING_SQL);
+        int deleted = jdbcTemplate.update(DELETE_STALE_SQL);
+        log.info("Rebuilt user_effective_permissions: {} rows inserted, {} deleted", inserted, deleted);
+    }
+
+    /**
+     * Held until the rebuild transaction ends. Other databases only serve single-instance development and tests.
+     */
+    private boolean tryRebuildLock() {
+        if (postgres == null) {
+            postgres = jdbcTemplate.execute((ConnectionCallback<Boolean>) connection ->
+                    "PostgreSQL".equals(connection.getMetaData().getDatabaseProductName()));
+        }
+        return !postgres || Boolean.TRUE.equals(jdbcTemplate.queryForObject(TRY_REBUILD_LOCK_SQL, Boolean.class, REBUILD_LOCK_KEY));
+    }
+
+}
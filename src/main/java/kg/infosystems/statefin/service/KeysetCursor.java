@@ -0,0 +1,57 @@
+package kg.infosystems.statefin.service;
+
+import kg.infosystems.statefin.dto.response.CursorPagedResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+/**
+ * Opaque continuation token for keyset pagination over ascending ids. A page is read with
+ * {@code WHERE id > :afterId ORDER BY id} and one extra row, so it needs neither an offset nor a count query.
+ */
+final class KeysetCursor {
+
+    static final int MAX_PAGE_SIZE = 1000;
+
+    private static final String PREFIX = "id:";
+
+    private KeysetCursor() {
+    }
+
+    static long decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return 0L;
+        }
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (value.startsWith(PREFIX)) {
+                return Long.parseLong(value.substring(PREFIX.length()));
+            }
+        } catch (IllegalArgumentException e) {
+            // fall through to the common error below
+        }
+        throw new IllegalArgumentException("Invalid cursor");
+    }
+
+    static String encode(long id) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((PREFIX + id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    static int fetchSize(int size) {
+        return Math.min(Math.max(size, 1), MAX_PAGE_SIZE) + 1;
+    }
+
+    static <E, T> CursorPagedResponse<T> page(List<E> rows, int size, ToLongFunction<E> idOf,
+                                              Function<List<E>, List<T>> mapper) {
+        int pageSize = fetchSize(size) - 1;
+        boolean hasNext = rows.size() > pageSize;
+        List<E> content = hasNext ? rows.subList(0, pageSize) : rows;
+        String nextCursor = hasNext ? encode(idOf.applyAsLong(content.get(content.size() - 1))) : null;
+        return new CursorPagedResponse<>(mapper.apply(content), pageSize, nextCursor, hasNext);
+    }
+
+}
@@ -1,14 +1,20 @@
 package kg.infosystems.statefin.service;
 
+import kg.infosystems.statefin.config.CacheConfig;
 import kg.infosystems.statefin.dto.request.PermissionCreateRequest;
 import kg.infosystems.statefin.dto.request.PermissionUpdateRequest;
+import kg.infosystems.statefin.dto.response.CursorPagedResponse;
 import kg.infosystems.statefin.dto.response.PagedResponse;
 import kg.infosystems.statefin.dto.response.PermissionResponse;
 import kg.infosystems.statefin.entity.Permission;
 import kg.infosystems.statefin.exception.ResourceAlreadyExistsException;
 import kg.infosystems.statefin.exception.ResourceNotFoundException;
 import kg.infosystems.statefin.repository.PermissionRepository;
+import kg.infosystems.statefin.security.AuthorizationVersionService;
+import kg.infosystems.statefin.security.PermissionIndex;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -22,6 +28,9 @@ import java.util.stream.Collectors;
 public class PermissionService {
 
     private final PermissionRepository permissionRepository;
+    private final AuthorizationVersionService authorizationVersionService;
+    private final PermissionIndex permissionIndex;
+    private final ResponseCacheEvictor responseCacheEvictor;
 
     @Transactional
     public PermissionResponse createPermission(PermissionCreateRequest request) {
@@ -43,6 +52,8 @@ public class PermissionService {
                 .build();
 
         Permission savedPermission = permissionRepository.save(permission);
+        permissionIndex.invalidate();
+        responseCacheEvictor.permissionCreated();
         return mapToPermissionResponse(savedPermission);
     }
 
@@ -79,6 +90,15 @@ public class PermissionService {
         );
     }
 
+    @Transactional(readOnly = true)
+    public CursorPagedResponse<PermissionResponse> scrollPermissions(String cursor, int size) {
+        List<Permission> permissions = permissionRepository.findActiveAfter(
+                KeysetCursor.decode(cursor), Limit.of(KeysetCursor.fetchSize(size)));
+        return KeysetCursor.page(permissions, size, Permission::getId, page -> page.stream()
+                .map(this::mapToPermissionResponse)
+                .collect(Collectors.toList()));
+    }
+
     @Transactional
     public PermissionResponse updatePermission(Long id, PermissionUpdateRequest request) {
         Permission permission = permissionRepository.findById(id)
@@ -88,11 +108,13 @@ public class PermissionService {
             permission.setDescription(request.getDescription());
         }
 
-        if (request.getActive() != null) {
+        if (request.getActive() != null && !request.getActive().equals(permission.getActive())) {
             permission.setActive(request.getActive());
+            authorizationVersionService.permissionChanged(id);
         }
 
         Permission updatedPermission = permissionRepository.save(permission);
+        responseCacheEvictor.permissionChanged();
         return mapToPermissionResponse(updatedPermission);
     }
 
@@ -103,14 +125,18 @@ public class PermissionService {
 
         permission.setActive(false);
         permissionRepository.save(permission);
+        authorizationVersionService.permissionChanged(id);
+        responseCacheEvictor.permissionChanged();
     }
 
     @Transactional(readOnly = true)
+    @Cacheable(cacheNames = CacheConfig.PERMISSION_RESOURCES, sync = true)
     public List<String> getAllResources() {
         return permissionRepository.findAllResources();
     }
 
     @Transactional(readOnly = true)
+    @Cacheable(cacheNames = CacheConfig.PERMISSION_ACTIONS, sync = true)
     public List<String> getAllActions() {
         return permissionRepository.findAllActions();
     }
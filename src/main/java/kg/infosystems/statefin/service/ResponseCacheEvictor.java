@@ -0,0 +1,54 @@
+package kg.infosystems.statefin.service;
+
+import kg.infosystems.statefin.config.CacheConfig;
+import kg.infosystems.statefin.entity.Role;
+import kg.infosystems.statefin.entity.User;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+/**
+ * Evicts the cached read responses a write has made stale. User responses embed their roles and role responses
+ * embed their permissions, so a role change drops every cached user and a permission change drops every cached
+ * user and role. Evictions are deferred to commit by the transaction-aware cache manager.
+ */
+@Component
+@RequiredArgsConstructor
+public class ResponseCacheEvictor {
+
+    private final CacheManager cacheManager;
+
+    public void userChanged(User user) {
+        evict(CacheConfig.USERS_BY_ID, user.getId());
+        evict(CacheConfig.USERS_BY_USERNAME, User.normalize(user.getUsername()));
+    }
+
+    public void roleChanged(Role role) {
+        evict(CacheConfig.ROLES_BY_ID, role.getId());
+        evict(CacheConfig.ROLES_BY_NAME, role.getName());
+        clear(CacheConfig.USERS_BY_ID);
+        clear(CacheConfig.USERS_BY_USERNAME);
+    }
+
+    public void permissionCreated() {
+        clear(CacheConfig.PERMISSION_RESOURCES);
+        clear(CacheConfig.PERMISSION_ACTIONS);
+    }
+
+    public void permissionChanged() {
+        permissionCreated();
+        clear(CacheConfig.ROLES_BY_ID);
+        clear(CacheConfig.ROLES_BY_NAME);
+        clear(CacheConfig.USERS_BY_ID);
+        clear(CacheConfig.USERS_BY_USERNAME);
+    }
+
+    private void evict(String cacheName, Object key) {
+        cacheManager.getCache(cacheName).evict(key);
+    }
+
+    private void clear(String cacheName) {
+        cacheManager.getCache(cacheName).clear();
+    }
+
+}
@@ -1,7 +1,9 @@
 package kg.infosystems.statefin.service;
 
+import kg.infosystems.statefin.config.CacheConfig;
 import kg.infosystems.statefin.dto.request.RoleCreateRequest;
 import kg.infosystems.statefin.dto.request.RoleUpdateRequest;
+import kg.infosystems.statefin.dto.response.CursorPagedResponse;
 import kg.infosystems.statefin.dto.response.PagedResponse;
 import kg.infosystems.statefin.dto.response.PermissionResponse;
 import kg.infosystems.statefin.dto.response.RoleResponse;
@@ -11,13 +13,19 @@ import kg.infosystems.statefin.exception.ResourceAlreadyExistsException;
 import kg.infosystems.statefin.exception.ResourceNotFoundException;
 import kg.infosystems.statefin.repository.PermissionRepository;
 import kg.infosystems.statefin.repository.RoleRepository;
+import kg.infosystems.statefin.security.AuthorizationVersionService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -26,6 +34,9 @@ public class RoleService {
 
     private final RoleRepository roleRepository;
     private final PermissionRepository permissionRepository;
+    private final AuthorizationVersionService authorizationVersionService;
+    private final EffectivePermissionService effectivePermissionService;
+    private final ResponseCacheEvictor responseCacheEvictor;
 
     @Transactional
     public RoleResponse createRole(RoleCreateRequest request) {
@@ -44,6 +55,7 @@ public class RoleService {
     }
 
     @Transactional(readOnly = true)
+    @Cacheable(cacheNames = CacheConfig.ROLES_BY_ID, key = "#id", sync = true)
     public RoleResponse getRoleById(Long id) {
         Role role = roleRepository.findByIdWithPermissions(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Role not found with id: " + id));
@@ -51,6 +63,7 @@ public class RoleService {
     }
 
     @Transactional(readOnly = true)
+    @Cacheable(cacheNames = CacheConfig.ROLES_BY_NAME, key = "#name", sync = true)
     public RoleResponse getRoleByName(String name) {
         Role role = roleRepository.findByNameWithPermissions(name)
                 .orElseThrow(() -> new ResourceNotFoundException("Role not found with name: " + name));
@@ -59,23 +72,37 @@ public class RoleService {
 
     @Transactional(readOnly = true)
     public PagedResponse<RoleResponse> getAllRoles(Pageable pageable) {
-        Page<Role> rolePage = roleRepository.findByActiveTrue(pageable);
+        Page<Long> idPage = roleRepository.findActiveIds(pageable);
         
         return new PagedResponse<>(
-                rolePage.getContent().stream()
-                        .map(this::mapToRoleResponse)
-                        .collect(Collectors.toList()),
-                rolePage.getNumber(),
-                rolePage.getSize(),
-                rolePage.getTotalElements(),
-                rolePage.getTotalPages(),
-                rolePage.isFirst(),
-                rolePage.isLast(),
-                rolePage.hasNext(),
-                rolePage.hasPrevious()
+                loadRoleResponses(idPage.getContent()),
+                idPage.getNumber(),
+                idPage.getSize(),
+                idPage.getTotalElements(),
+                idPage.getTotalPages(),
+                idPage.isFirst(),
+                idPage.isLast(),
+                idPage.hasNext(),
+                idPage.hasPrevious()
         );
     }
 
+    @Transactional(readOnly = true)
+    public CursorPagedResponse<RoleResponse> scrollRoles(String cursor, int size) {
+        List<Long> ids = roleRepository.findActiveIdsAfter(KeysetCursor.decode(cursor), Limit.of(KeysetCursor.fetchSize(size)));
+        return KeysetCursor.page(ids, size, Long::longValue, this::loadRoleResponses);
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPagedResponse<RoleResponse> scrollRolesWithPermission(Long permissionId, String cursor, int size) {
+        if (!permissionRepository.existsById(permissionId)) {
+            throw new ResourceNotFoundException("Permission not found with id: " + permissionId);
+        }
+        List<Long> ids = roleRepository.findActiveIdsByPermissionIdAfter(
+                permissionId, KeysetCursor.decode(cursor), Limit.of(KeysetCursor.fetchSize(size)));
+        return KeysetCursor.page(ids, size, Long::longValue, this::loadRoleResponses);
+    }
+
     @Transactional
     public RoleResponse updateRole(Long id, RoleUpdateRequest request) {
         Role role = roleRepository.findById(id)
@@ -85,11 +112,13 @@ public class RoleService {
             role.setDescription(request.getDescription());
         }
 
-        if (request.getActive() != null) {
+        if (request.getActive() != null && !request.getActive().equals(role.getActive())) {
             role.setActive(request.getActive());
+            authorizationVersionService.roleChanged(id);
         }
 
         Role updatedRole = roleRepository.save(role);
+        responseCacheEvictor.roleChanged(updatedRole);
         return mapToRoleResponse(updatedRole);
     }
 
@@ -100,6 +129,8 @@ public class RoleService {
 
         role.setActive(false);
         roleRepository.save(role);
+        authorizationVersionService.roleChanged(id);
+        responseCacheEvictor.roleChanged(role);
     }
 
     @Transactional
@@ -112,6 +143,9 @@ public class RoleService {
 
         role.addPermission(permission);
         Role updatedRole = roleRepository.save(role);
+        effectivePermissionService.permissionGranted(roleId, permissionId);
+        authorizationVersionService.roleChanged(roleId);
+        responseCacheEvictor.roleChanged(updatedRole);
         return mapToRoleResponse(updatedRole);
     }
 
@@ -125,6 +159,9 @@ public class RoleService {
 
         role.removePermission(permission);
         Role updatedRole = roleRepository.save(role);
+        effectivePermissionService.permissionRevoked(roleId, permissionId);
+        authorizationVersionService.roleChanged(roleId);
+        responseCacheEvictor.roleChanged(updatedRole);
         return mapToRoleResponse(updatedRole);
     }
 
@@ -147,6 +184,18 @@ public class RoleService {
                 .collect(Collectors.toSet());
     }
 
+    private List<RoleResponse> loadRoleResponses(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Role> roles = roleRepository.findAllWithPermissionsByIdIn(ids).stream()
+                .collect(Collectors.toMap(Role::getId, Function.identity()));
+        return ids.stream()
+                .map(roles::get)
+                .map(this::mapToRoleResponse)
+                .collect(Collectors.toList());
+    }
+
     private RoleResponse mapToRoleResponse(Role role) {
         Set<PermissionResponse> permissionResponses = role.getPermissions().stream()
                 .map(permission -> new PermissionResponse(
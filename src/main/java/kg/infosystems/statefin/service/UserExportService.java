@@ -0,0 +1,234 @@
+package kg.infosystems.statefin.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.Locale;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Streams the active user directory with each user's active roles and effective permissions. Rows come from a
+ * single forward-only join ordered by user id and are folded into one record per user as they arrive, so memory use
+ * does not depend on the number of users.
+ */
+@Service
+@RequiredArgsConstructor
+public class UserExportService {
+
+    private static final String EXPORT_SQL = """
+            SELECT u.id, u.username, u.email, u.first_name, u.last_name, u.created_at, u.updated_at,
+                   r.name AS role_name, p.name AS permission_name
+            FROM users u
+            LEFT JOIN user_roles ur ON ur.user_id = u.id
+            LEFT JOIN roles r ON r.id = ur.role_id AND r.active = true
+            LEFT JOIN role_permissions rp ON rp.role_id = r.id
+            LEFT JOIN permissions p ON p.id = rp.permission_id AND p.active = true
+            WHERE u.active = true
+            ORDER BY u.id
+            """;
+
+    private static final String CSV_HEADER = "id,username,email,firstName,lastName,createdAt,updatedAt,roles,permissions";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+    private final ObjectMapper objectMapper;
+
+    @Value("${app.export.fetch-size:500}")
+    private int fetchSize;
+
+    public enum Format {
+        NDJSON(MediaType.parseMediaType("application/x-ndjson"), "ndjson"),
+        CSV(MediaType.parseMediaType("text/csv"), "csv");
+
+        private final MediaType mediaType;
+        private final String extension;
+
+        Format(MediaType mediaType, String extension) {
+            this.mediaType = mediaType;
+            this.extension = extension;
+        }
+
+        public static Format of(String value) {
+            try {
+                return valueOf(value.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unsupported export format: " + value + " (use ndjson or csv)");
+            }
+        }
+
+        public MediaType getMediaType() {
+            return mediaType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+    }
+
+    public void exportUsers(Format format, OutputStream outputStream) throws IOException {
+        JdbcTemplate cursor = new JdbcTemplate(jdbcTemplate.getDataSource());
+        cursor.setFetchSize(fetchSize);
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(true);
+
+        try (RecordWriter writer = format == Format.CSV ? new CsvWriter(outputStream) : new NdjsonWriter(outputStream)) {
+            UserRecordAssembler assembler = new UserRecordAssembler(writer);
+            transaction.executeWithoutResult(status -> cursor.query(EXPORT_SQL, assembler::accept));
+            assembler.flush();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private record UserRecord(long id, String username, String email, String firstName, String lastName,
+                              Timestamp createdAt, Timestamp updatedAt, Set<String> roles, Set<String> permissions) {
+    }
+
+    private static final class UserRecordAssembler {
+
+        private final RecordWriter writer;
+        private UserRecord current;
+
+        UserRecordAssembler(RecordWriter writer) {
+            this.writer = writer;
+        }
+
+        void accept(ResultSet rs) throws SQLException {
+            long id = rs.getLong("id");
+            if (current == null || current.id() != id) {
+                flush();
+                current = new UserRecord(id, rs.getString("username"), rs.getString("email"),
+                        rs.getString("first_name"), rs.getString("last_name"),
+                        rs.getTimestamp("created_at"), rs.getTimestamp("updated_at"), new TreeSet<>(), new TreeSet<>());
+            }
+            String role = rs.getString("role_name");
+            if (role != null) {
+                current.roles().add(role);
+            }
+            String permission = rs.getString("permission_name");
+            if (permission != null) {
+                current.permissions().add(permission);
+            }
+        }
+
+        void flush() {
+            if (current != null) {
+                try {
+                    writer.write(current);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                current = null;
+            }
+        }
+    }
+
+    private interface RecordWriter extends AutoCloseable {
+
+        void write(UserRecord user) throws IOException;
+
+        @Override
+        void close() throws IOException;
+    }
+
+    private final class NdjsonWriter implements RecordWriter {
+
+        private final JsonGenerator generator;
+
+        NdjsonWriter(OutputStream outputStream) throws IOException {
+            this.generator = objectMapper.getFactory().createGenerator(outputStream)
+                    .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            this.generator.setRootValueSeparator(null);
+        }
+
+        @Override
+        public void write(UserRecord user) throws IOException {
+            generator.writeStartObject();
+            generator.writeNumberField("id", user.id());
+            generator.writeStringField("username", user.username());
+            generator.writeStringField("email", user.email());
+            generator.writeStringField("firstName", user.firstName());
+            generator.writeStringField("lastName", user.lastName());
+            generator.writeStringField("createdAt", format(user.createdAt()));
+            generator.writeStringField("updatedAt", format(user.updatedAt()));
+            writeArray("roles", user.roles());
+            writeArray("permissions", user.permissions());
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        }
+
+        private void writeArray(String name, Set<String> values) throws IOException {
+            generator.writeArrayFieldStart(name);
+            for (String value : values) {
+                generator.writeString(value);
+            }
+            generator.writeEndArray();
+        }
+
+        @Override
+        public void close() throws IOException {
+            generator.close();
+        }
+    }
+
+    private static final class CsvWriter implements RecordWriter {
+
+        private final Writer out;
+
+        CsvWriter(OutputStream outputStream) throws IOException {
+            this.out = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+            this.out.write(CSV_HEADER);
+            this.out.write("\r\n");
+        }
+
+        @Override
+        public void write(UserRecord user) throws IOException {
+            out.write(Long.toString(user.id()));
+            for (String field : new String[]{user.username(), user.email(), user.firstName(), user.lastName(),
+                    format(user.createdAt()), format(user.updatedAt()),
+                    String.join("|", user.roles()), String.join("|", user.permissions())}) {
+                out.write(',');
+                out.write(escape(field));
+            }
+            out.write("\r\n");
+        }
+
+        private static String escape(String value) {
+            if (value == null) {
+                return "";
+            }
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+                return value;
+            }
+            return '"' + value.replace("\"", "\"\"") + '"';
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.flush();
+        }
+    }
+
+    private static String format(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toLocalDateTime().toString() : null;
+    }
+
+}
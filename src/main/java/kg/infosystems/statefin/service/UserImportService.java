@@ -0,0 +1,234 @@
+package kg.infosystems.statefin.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import kg.infosystems.statefin.dto.request.UserRegistrationRequest;
+import kg.infosystems.statefin.dto.response.BulkImportResponse;
+import kg.infosystems.statefin.entity.User;
+import kg.infosystems.statefin.repository.UserRepository;
+import kg.infosystems.statefin.security.BoundedPasswordEncoder;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Imports users from a JSON array or newline-delimited JSON. Rows are handled in chunks: uniqueness is checked with
+ * one query per column, passwords are hashed in parallel on the bounded hashing pool, and users and their default
+ * role are written with JDBC batches. Each chunk commits on its own, and rows that fail are reported by index.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class UserImportService {
+
+    private static final String INSERT_USER_SQL = """
+            INSERT INTO users (id, username, email, username_normalized, email_normalized, password, first_name, last_name,
+                               active, authz_version, created_at, updated_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, true, 0, ?, ?)
+            """;
+    private static final String INSERT_USER_ROLE_SQL = "INSERT INTO user_roles (user_id, role_id) VALUES (?, ?)";
+
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final UserRepository userRepository;
+    private final UserService userService;
+    private final BoundedPasswordEncoder passwordEncoder;
+    private final EffectivePermissionService effectivePermissionService;
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManager entityManager;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${app.import.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${app.import.max-reported-errors:1000}")
+    private int maxReportedErrors;
+
+    public BulkImportResponse importUsers(InputStream inputStream) throws IOException {
+        Long defaultRoleId = userService.getOrCreateDefaultRole().getId();
+        ImportReport report = new ImportReport(maxReportedErrors);
+        List<Row> chunk = new ArrayList<>(chunkSize);
+        int index = 0;
+
+        try (MappingIterator<UserRegistrationRequest> rows = objectMapper.readerFor(UserRegistrationRequest.class).readValues(inputStream)) {
+            while (rows.hasNextValue()) {
+                chunk.add(new Row(index++, rows.nextValue()));
+                if (chunk.size() == chunkSize) {
+                    importChunk(chunk, defaultRoleId, report);
+                    chunk.clear();
+                }
+            }
+        } catch (JsonProcessingException e) {
+            importChunk(chunk, defaultRoleId, report);
+            chunk.clear();
+            report.received++;
+            report.fail(index, null, "Malformed input, import stopped: " + e.getOriginalMessage());
+        }
+        importChunk(chunk, defaultRoleId, report);
+
+        log.info("Bulk import finished: {} received, {} imported, {} failed", report.received, report.imported, report.failed);
+        return report.toResponse();
+    }
+
+    private void importChunk(List<Row> chunk, Long defaultRoleId, ImportReport report) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        report.received += chunk.size();
+
+        List<Row> accepted = new ArrayList<>(chunk.size());
+        Set<String> usernames = new HashSet<>();
+        Set<String> emails = new HashSet<>();
+        for (Row row : chunk) {
+            String violation = validate(row.request());
+            if (violation != null) {
+                report.fail(row, violation);
+            } else if (!usernames.add(User.normalize(row.request().getUsername()))) {
+                report.fail(row, "Duplicate username in import: " + row.request().getUsername());
+            } else if (!emails.add(User.normalize(row.request().getEmail()))) {
+                report.fail(row, "Duplicate email in import: " + row.request().getEmail());
+            } else {
+                accepted.add(row);
+            }
+        }
+        if (accepted.isEmpty()) {
+            return;
+        }
+
+        Set<String> existingUsernames = userRepository.findExistingUsernames(usernames);
+        Set<String> existingEmails = userRepository.findExistingEmails(emails);
+        List<Row> insertable = new ArrayList<>(accepted.size());
+        for (Row row : accepted) {
+            if (existingUsernames.contains(User.normalize(row.request().getUsername()))) {
+                report.fail(row, "Username is already taken: " + row.request().getUsername());
+            } else if (existingEmails.contains(User.normalize(row.request().getEmail()))) {
+                report.fail(row, "Email is already in use: " + row.request().getEmail());
+            } else {
+                insertable.add(row);
+            }
+        }
+        if (insertable.isEmpty()) {
+            return;
+        }
+
+        List<String> hashes = passwordEncoder.encodeAll(insertable.stream().map(row -> row.request().getPassword()).toList());
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        List<Long> ids = transaction.execute(status -> allocateUserIds(insertable.size()));
+        try {
+            transaction.executeWithoutResult(status -> insert(insertable, ids, hashes, defaultRoleId, now));
+            report.imported += insertable.size();
+        } catch (DataIntegrityViolationException e) {
+            // Another writer claimed a username or email after the check; retry row by row to isolate it.
+            for (int i = 0; i < insertable.size(); i++) {
+                Row row = insertable.get(i);
+                List<Long> id = List.of(ids.get(i));
+                List<String> hash = List.of(hashes.get(i));
+                try {
+                    transaction.executeWithoutResult(status -> insert(List.of(row), id, hash, defaultRoleId, now));
+                    report.imported++;
+                } catch (DataIntegrityViolationException rowFailure) {
+                    report.fail(row, "Username or email is already in use");
+                }
+            }
+        }
+    }
+
+    /**
+     * Draws ids from the same pooled generator Hibernate uses for {@link User}, so a chunk costs one sequence call
+     * per allocation block and never collides with ids handed out by the entity manager.
+     */
+    private List<Long> allocateUserIds(int count) {
+        SharedSessionContractImplementor session = entityManager.unwrap(SharedSessionContractImplementor.class);
+        IdentifierGenerator generator = (IdentifierGenerator) session.getFactory().getMappingMetamodel()
+                .getEntityDescriptor(User.class)
+                .getGenerator();
+        List<Long> ids = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            ids.add((Long) generator.generate(session, null));
+        }
+        return ids;
+    }
+
+    private void insert(List<Row> rows, List<Long> ids, List<String> hashes, Long defaultRoleId, Timestamp now) {
+        List<Object[]> userArgs = new ArrayList<>(rows.size());
+        List<Object[]> roleArgs = new ArrayList<>(rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            UserRegistrationRequest request = rows.get(i).request();
+            userArgs.add(new Object[]{ids.get(i), request.getUsername(), request.getEmail(),
+                    User.normalize(request.getUsername()), User.normalize(request.getEmail()), hashes.get(i),
+                    request.getFirstName(), request.getLastName(), now, now});
+            roleArgs.add(new Object[]{ids.get(i), defaultRoleId});
+        }
+        jdbcTemplate.batchUpdate(INSERT_USER_SQL, userArgs);
+        jdbcTemplate.batchUpdate(INSERT_USER_ROLE_SQL, roleArgs);
+        effectivePermissionService.refreshUsers(ids);
+    }
+
+    private String validate(UserRegistrationRequest request) {
+        if (request == null) {
+            return "Row is empty";
+        }
+        Set<ConstraintViolation<UserRegistrationRequest>> violations = validator.validate(request);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+
+    private record Row(int index, UserRegistrationRequest request) {
+    }
+
+    private static final class ImportReport {
+
+        private final int maxErrors;
+        private final List<BulkImportResponse.RowError> errors = new ArrayList<>();
+        private int received;
+        private int imported;
+        private int failed;
+
+        ImportReport(int maxErrors) {
+            this.maxErrors = maxErrors;
+        }
+
+        void fail(Row row, String message) {
+            fail(row.index(), row.request() != null ? row.request().getUsername() : null, message);
+        }
+
+        void fail(int index, String username, String message) {
+            failed++;
+            if (errors.size() < maxErrors) {
+                errors.add(new BulkImportResponse.RowError(index, username, message));
+            }
+        }
+
+        BulkImportResponse toResponse() {
+            return new BulkImportResponse(received, imported, failed, errors, failed > errors.size());
+        }
+    }
+
+}
@@ -1,25 +1,39 @@
 package kg.infosystems.statefin.service;
 
+import kg.infosystems.statefin.config.CacheConfig;
 import kg.infosystems.statefin.dto.request.UserRegistrationRequest;
 import kg.infosystems.statefin.dto.request.UserUpdateRequest;
+import kg.infosystems.statefin.dto.response.CursorPagedResponse;
 import kg.infosystems.statefin.dto.response.PagedResponse;
 import kg.infosystems.statefin.dto.response.PermissionResponse;
 import kg.infosystems.statefin.dto.response.RoleResponse;
 import kg.infosystems.statefin.dto.response.UserResponse;
+import kg.infosystems.statefin.entity.Permission;
 import kg.infosystems.statefin.entity.Role;
 import kg.infosystems.statefin.entity.User;
 import kg.infosystems.statefin.exception.ResourceNotFoundException;
 import kg.infosystems.statefin.exception.UserAlreadyExistsException;
+import kg.infosystems.statefin.repository.PermissionRepository;
 import kg.infosystems.statefin.repository.RoleRepository;
+import kg.infosystems.statefin.repository.UserEffectivePermissionRepository;
 import kg.infosystems.statefin.repository.UserRepository;
+import kg.infosystems.statefin.security.AuthorizationVersionService;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -28,16 +42,15 @@ public class UserService {
 
     private final UserRepository userRepository;
     private final RoleRepository roleRepository;
+    private final PermissionRepository permissionRepository;
+    private final UserEffectivePermissionRepository userEffectivePermissionRepository;
     private final PasswordEncoder passwordEncoder;
+    private final AuthorizationVersionService authorizationVersionService;
+    private final EffectivePermissionService effectivePermissionService;
+    private final ResponseCacheEvictor responseCacheEvictor;
 
     @Transactional
     public UserResponse createUser(UserRegistrationRequest request) {
-        if (userRepository.existsByUsername(request.getUsername())) {
-            throw new UserAlreadyExistsException("Username is already taken");
-        }
-        if (userRepository.existsByEmail(request.getEmail())) {
-            throw new UserAlreadyExistsException("Email is already registered");
-        }
         User user = User.builder()
                 .username(request.getUsername())
                 .email(request.getEmail())
@@ -52,7 +65,16 @@ public class UserService {
         if (user.getUpdatedAt() == null) {
             user.setUpdatedAt(java.time.LocalDateTime.now());
         }
-        Role userRole = roleRepository.findByName("USER")
+        Role defaultRole = getOrCreateDefaultRole();
+        user.addRole(defaultRole);
+        User savedUser = saveAndFlushUnique(user);
+        effectivePermissionService.roleAssigned(savedUser.getId(), defaultRole.getId());
+        return toUserResponse(savedUser);
+    }
+
+    @Transactional
+    public Role getOrCreateDefaultRole() {
+        return roleRepository.findByName("USER")
                 .orElseGet(() -> {
                     Role newUserRole = Role.builder()
                             .name("USER")
@@ -67,52 +89,83 @@ public class UserService {
                     }
                     return roleRepository.save(newUserRole);
                 });
-        user.addRole(userRole);
-        User savedUser = userRepository.save(user);
-        return mapToUserResponse(savedUser);
     }
 
     @Transactional(readOnly = true)
+    @Cacheable(cacheNames = CacheConfig.USERS_BY_ID, key = "#id", sync = true)
     public UserResponse getUserById(Long id) {
         User user = userRepository.findByIdWithRoles(id)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + id));
-        return mapToUserResponse(user);
+        return toUserResponse(user);
     }
 
     @Transactional(readOnly = true)
+    @Cacheable(cacheNames = CacheConfig.USERS_BY_USERNAME,
+               key = "T(kg.infosystems.statefin.entity.User).normalize(#username)", sync = true)
     public UserResponse getUserByUsername(String username) {
-        User user = userRepository.findByUsernameWithRolesAndPermissions(username)
+        User user = userRepository.findByUsernameWithRoles(username)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found with username: " + username));
-        return mapToUserResponse(user);
+        return toUserResponse(user);
     }
 
     @Transactional(readOnly = true)
     public PagedResponse<UserResponse> getAllUsers(Pageable pageable) {
-        Page<User> userPage = userRepository.findByActiveTrue(pageable);
+        Page<Long> idPage = userRepository.findActiveIds(pageable);
         
         return new PagedResponse<>(
-                userPage.getContent().stream()
-                        .map(this::mapToUserResponse)
-                        .collect(Collectors.toList()),
-                userPage.getNumber(),
-                userPage.getSize(),
-                userPage.getTotalElements(),
-                userPage.getTotalPages(),
-                userPage.isFirst(),
-                userPage.isLast(),
-                userPage.hasNext(),
-                userPage.hasPrevious()
+                loadUserResponses(idPage.getContent()),
+                idPage.getNumber(),
+                idPage.getSize(),
+                idPage.getTotalElements(),
+                idPage.getTotalPages(),
+                idPage.isFirst(),
+                idPage.isLast(),
+                idPage.hasNext(),
+                idPage.hasPrevious()
         );
     }
 
+    @Transactional(readOnly = true)
+    public CursorPagedResponse<UserResponse> scrollUsers(String cursor, int size) {
+        List<Long> ids = userRepository.findActiveIdsAfter(KeysetCursor.decode(cursor), Limit.of(KeysetCursor.fetchSize(size)));
+        return KeysetCursor.page(ids, size, Long::longValue, this::loadUserResponses);
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPagedResponse<UserResponse> scrollUsersWithRole(Long roleId, String cursor, int size) {
+        if (!roleRepository.existsById(roleId)) {
+            throw new ResourceNotFoundException("Role not found with id: " + roleId);
+        }
+        List<Long> ids = userRepository.findActiveIdsByRoleIdAfter(
+                roleId, KeysetCursor.decode(cursor), Limit.of(KeysetCursor.fetchSize(size)));
+        return KeysetCursor.page(ids, size, Long::longValue, this::loadUserResponses);
+    }
+
+    @Transactional(readOnly = true)
+    public List<PermissionResponse> getEffectivePermissions(Long userId) {
+        if (!userRepository.existsById(userId)) {
+            throw new ResourceNotFoundException("User not found with id: " + userId);
+        }
+        return userEffectivePermissionRepository.findActivePermissionsByUserId(userId).stream()
+                .map(this::mapToPermissionResponse)
+                .collect(Collectors.toList());
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPagedResponse<UserResponse> scrollUsersWithPermission(Long permissionId, String cursor, int size) {
+        if (!permissionRepository.existsById(permissionId)) {
+            throw new ResourceNotFoundException("Permission not found with id: " + permissionId);
+        }
+        List<Long> ids = userEffectivePermissionRepository.findActiveUserIdsByPermissionIdAfter(
+                permissionId, KeysetCursor.decode(cursor), Limit.of(KeysetCursor.fetchSize(size)));
+        return KeysetCursor.page(ids, size, Long::longValue, this::loadUserResponses);
+    }
+
     @Transactional
     public UserResponse updateUser(Long id, UserUpdateRequest request) {
         User user = userRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + id));
         if (request.getEmail() != null && !request.getEmail().equals(user.getEmail())) {
-            if (userRepository.existsByEmail(request.getEmail())) {
-                throw new UserAlreadyExistsException("Email is already registered");
-            }
             user.setEmail(request.getEmail());
         }
         if (request.getFirstName() != null) {
@@ -121,11 +174,13 @@ public class UserService {
         if (request.getLastName() != null) {
             user.setLastName(request.getLastName());
         }
-        if (request.getActive() != null) {
+        if (request.getActive() != null && !request.getActive().equals(user.getActive())) {
             user.setActive(request.getActive());
+            authorizationVersionService.userChanged(user);
         }
-        User updatedUser = userRepository.save(user);
-        return mapToUserResponse(updatedUser);
+        User updatedUser = saveAndFlushUnique(user);
+        responseCacheEvictor.userChanged(updatedUser);
+        return toUserResponse(updatedUser);
     }
 
     @Transactional
@@ -133,7 +188,9 @@ public class UserService {
         User user = userRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + id));
         user.setActive(false);
+        authorizationVersionService.userChanged(user);
         userRepository.save(user);
+        responseCacheEvictor.userChanged(user);
     }
 
     @Transactional
@@ -143,8 +200,11 @@ public class UserService {
         Role role = roleRepository.findById(roleId)
                 .orElseThrow(() -> new ResourceNotFoundException("Role not found with id: " + roleId));
         user.addRole(role);
+        authorizationVersionService.userChanged(user);
         User updatedUser = userRepository.save(user);
-        return mapToUserResponse(updatedUser);
+        effectivePermissionService.roleAssigned(userId, roleId);
+        responseCacheEvictor.userChanged(updatedUser);
+        return toUserResponse(updatedUser);
     }
 
     @Transactional
@@ -154,24 +214,52 @@ public class UserService {
         Role role = roleRepository.findById(roleId)
                 .orElseThrow(() -> new ResourceNotFoundException("Role not found with id: " + roleId));
         user.removeRole(role);
+        authorizationVersionService.userChanged(user);
         User updatedUser = userRepository.save(user);
-        return mapToUserResponse(updatedUser);
+        effectivePermissionService.roleRemoved(userId, roleId);
+        responseCacheEvictor.userChanged(updatedUser);
+        return toUserResponse(updatedUser);
     }
 
-    private UserResponse mapToUserResponse(User user) {
+    /**
+     * Uniqueness of username and email is enforced by the unique constraints on their normalized columns; a
+     * violation is reported as the field that clashed instead of being checked with a query beforehand.
+     */
+    private User saveAndFlushUnique(User user) {
+        try {
+            return userRepository.saveAndFlush(user);
+        } catch (DataIntegrityViolationException e) {
+            String constraint = e.getCause() instanceof ConstraintViolationException violation
+                    && violation.getConstraintName() != null
+                    ? violation.getConstraintName().toLowerCase(Locale.ROOT)
+                    : "";
+            if (constraint.contains(User.USERNAME_CONSTRAINT)) {
+                throw new UserAlreadyExistsException("Username is already taken");
+            }
+            if (constraint.contains(User.EMAIL_CONSTRAINT)) {
+                throw new UserAlreadyExistsException("Email is already registered");
+            }
+            throw e;
+        }
+    }
+
+    private List<UserResponse> loadUserResponses(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, User> users = userRepository.findAllWithRolesByIdIn(ids).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+        return ids.stream()
+                .map(users::get)
+                .map(this::toUserResponse)
+                .collect(Collectors.toList());
+    }
+
+    public UserResponse toUserResponse(User user) {
         Set<RoleResponse> roleResponses = user.getRoles().stream()
                 .map(role -> {
                     Set<PermissionResponse> permissionResponses = role.getPermissions().stream()
-                            .map(permission -> new PermissionResponse(
-                                    permission.getId(),
-                                    permission.getName(),
-                                    permission.getDescription(),
-                                    permission.getResource(),
-                                    permission.getAction(),
-                                    permission.getActive(),
-                                    permission.getCreatedAt(),
-                                    permission.getUpdatedAt()
-                            ))
+                            .map(this::mapToPermissionResponse)
                             .collect(Collectors.toSet());
 
                     return new RoleResponse(
@@ -199,4 +287,17 @@ public class UserService {
         );
     }
 
+    private PermissionResponse mapToPermissionResponse(Permission permission) {
+        return new PermissionResponse(
+                permission.getId(),
+                permission.getName(),
+                permission.getDescription(),
+                permission.getResource(),
+                permission.getAction(),
+                permission.getActive(),
+                permission.getCreatedAt(),
+                permission.getUpdatedAt()
+        );
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,4 @@
+-- Per-role authorization version, bumped together with the users' versions whenever the role's effective permissions
+-- change, so every instance can tell its precomputed role authorities are stale.
+
+ALTER TABLE roles ADD COLUMN authz_version BIGINT NOT NULL DEFAULT 0;
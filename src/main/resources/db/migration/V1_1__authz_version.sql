@@ -0,0 +1,3 @@
+-- Per-user authorization version, bumped whenever the user's effective authorities change.
+
+ALTER TABLE users ADD COLUMN authz_version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,63 @@
+-- Schema as created by Hibernate (PostgreSQL dialect) from the entity mappings before migrations were introduced.
+-- Existing databases are baselined at this version. Unique constraints were declared inline, so their names are
+-- chosen by PostgreSQL; later migrations look them up by column instead of relying on those names.
+
+CREATE TABLE permissions (
+    id          BIGSERIAL    NOT NULL,
+    active      BOOLEAN      NOT NULL,
+    created_at  TIMESTAMP(6) NOT NULL,
+    updated_at  TIMESTAMP(6),
+    action      VARCHAR(50)  NOT NULL,
+    description VARCHAR(255),
+    name        VARCHAR(100) NOT NULL,
+    resource    VARCHAR(50)  NOT NULL,
+    PRIMARY KEY (id),
+    UNIQUE (name, resource, action)
+);
+
+CREATE TABLE role_permissions (
+    role_id       BIGINT NOT NULL,
+    permission_id BIGINT NOT NULL,
+    PRIMARY KEY (role_id, permission_id)
+);
+
+CREATE TABLE roles (
+    id          BIGSERIAL    NOT NULL,
+    active      BOOLEAN      NOT NULL,
+    created_at  TIMESTAMP(6) NOT NULL,
+    updated_at  TIMESTAMP(6),
+    description VARCHAR(255),
+    name        VARCHAR(50)  NOT NULL UNIQUE,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE user_roles (
+    user_id BIGINT NOT NULL,
+    role_id BIGINT NOT NULL,
+    PRIMARY KEY (user_id, role_id)
+);
+
+CREATE TABLE users (
+    id         BIGSERIAL    NOT NULL,
+    active     BOOLEAN      NOT NULL,
+    created_at TIMESTAMP(6) NOT NULL,
+    updated_at TIMESTAMP(6),
+    email      VARCHAR(100) NOT NULL UNIQUE,
+    first_name VARCHAR(50)  NOT NULL,
+    last_name  VARCHAR(50)  NOT NULL,
+    password   VARCHAR(255) NOT NULL,
+    username   VARCHAR(50)  NOT NULL UNIQUE,
+    PRIMARY KEY (id)
+);
+
+ALTER TABLE role_permissions
+    ADD CONSTRAINT FKegdk29eiy7mdtefy5c7eirr6e FOREIGN KEY (permission_id) REFERENCES permissions;
+
+ALTER TABLE role_permissions
+    ADD CONSTRAINT FKn5fotdgk8d1xvo8nav9uv3muc FOREIGN KEY (role_id) REFERENCES roles;
+
+ALTER TABLE user_roles
+    ADD CONSTRAINT FKh8ciramu9cc9q3qcqiv4ue8a6 FOREIGN KEY (role_id) REFERENCES roles;
+
+ALTER TABLE user_roles
+    ADD CONSTRAINT FKhfh9dx7w3ubf1co1vdev94g3f FOREIGN KEY (user_id) REFERENCES users;
@@ -0,0 +1,17 @@
+-- Ids move from IDENTITY columns to sequences handed out in blocks (pooled-lo), so Hibernate can batch inserts.
+-- Increments must match the allocationSize of each entity's @SequenceGenerator.
+
+CREATE SEQUENCE permissions_seq INCREMENT BY 10;
+SELECT setval('permissions_seq', (SELECT COALESCE(MAX(id), 0) + 1 FROM permissions), false);
+ALTER TABLE permissions ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE permissions ALTER COLUMN id DROP DEFAULT;
+
+CREATE SEQUENCE roles_seq INCREMENT BY 50;
+SELECT setval('roles_seq', (SELECT COALESCE(MAX(id), 0) + 1 FROM roles), false);
+ALTER TABLE roles ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE roles ALTER COLUMN id DROP DEFAULT;
+
+CREATE SEQUENCE users_seq INCREMENT BY 50;
+SELECT setval('users_seq', (SELECT COALESCE(MAX(id), 0) + 1 FROM users), false);
+ALTER TABLE users ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE users ALTER COLUMN id DROP DEFAULT;
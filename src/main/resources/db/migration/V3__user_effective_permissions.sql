@@ -0,0 +1,14 @@
+-- Flattened user to permission pairs derived from user_roles and role_permissions, kept current by the services
+-- that change either table and rebuilt nightly. The primary key serves per-user reads, the index per-permission reads.
+
+CREATE TABLE user_effective_permissions (
+    user_id BIGINT NOT NULL REFERENCES users (id),
+    permission_id BIGINT NOT NULL REFERENCES permissions (id),
+    PRIMARY KEY (user_id, permission_id)
+);
+
+CREATE INDEX idx_user_effective_permissions_permission_user ON user_effective_permissions (permission_id, user_id);
+
+INSERT INTO user_effective_permissions (user_id, permission_id)
+SELECT DISTINCT ur.user_id, rp.permission_id
+FROM user_roles ur JOIN role_permissions rp ON rp.role_id = ur.role_id;
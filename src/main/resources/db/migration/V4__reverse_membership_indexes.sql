@@ -0,0 +1,5 @@
+-- The join table primary keys lead with the owning side; these serve the reverse lookups
+-- (members of a role, roles granting a permission) as index range scans in id order.
+
+CREATE INDEX idx_user_roles_role_user ON user_roles (role_id, user_id);
+CREATE INDEX idx_role_permissions_permission_role ON role_permissions (permission_id, role_id);
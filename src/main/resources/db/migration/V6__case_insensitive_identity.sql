@@ -0,0 +1,32 @@
+-- Usernames and emails become case-insensitive: lookups and uniqueness move to lowercased copies of both columns.
+-- The unique constraints fail to build if existing accounts differ only in case; resolve those before migrating.
+
+ALTER TABLE users
+    ADD COLUMN username_normalized VARCHAR(50),
+    ADD COLUMN email_normalized    VARCHAR(100);
+
+UPDATE users SET username_normalized = lower(username), email_normalized = lower(email);
+
+ALTER TABLE users
+    ALTER COLUMN username_normalized SET NOT NULL,
+    ALTER COLUMN email_normalized SET NOT NULL,
+    ADD CONSTRAINT uk_users_username_normalized UNIQUE (username_normalized),
+    ADD CONSTRAINT uk_users_email_normalized UNIQUE (email_normalized);
+
+-- The original single-column unique constraints were named by the database, so find them by column.
+DO $$
+DECLARE
+    c record;
+BEGIN
+    FOR c IN
+        SELECT con.conname
+        FROM pg_constraint con
+        JOIN pg_attribute a ON a.attrelid = con.conrelid AND a.attnum = con.conkey[1]
+        WHERE con.conrelid = 'users'::regclass
+          AND con.contype = 'u'
+          AND array_length(con.conkey, 1) = 1
+          AND a.attname IN ('username', 'email')
+    LOOP
+        EXECUTE format('ALTER TABLE users DROP CONSTRAINT %I', c.conname);
+    END LOOP;
+END $$;
@@ -0,0 +1,13 @@
+-- Server-side refresh token state: one row per login session, rotated on every refresh.
+
+CREATE TABLE refresh_token_families (
+    id               VARCHAR(36)  PRIMARY KEY,
+    user_id          BIGINT       NOT NULL REFERENCES users (id),
+    current_token_id VARCHAR(36)  NOT NULL,
+    created_at       TIMESTAMP(6) NOT NULL,
+    expires_at       TIMESTAMP(6) NOT NULL,
+    revoked_at       TIMESTAMP(6)
+);
+
+CREATE INDEX idx_refresh_token_families_expires_at ON refresh_token_families (expires_at);
+CREATE INDEX idx_refresh_token_families_user ON refresh_token_families (user_id);
@@ -0,0 +1,10 @@
+-- Access token denylist: one row per revoked jti, kept until the token itself expires.
+
+CREATE TABLE revoked_access_tokens (
+    token_id   VARCHAR(36)  PRIMARY KEY,
+    user_id    BIGINT       NOT NULL,
+    revoked_at TIMESTAMP(6) NOT NULL,
+    expires_at TIMESTAMP(6) NOT NULL
+);
+
+CREATE INDEX idx_revoked_access_tokens_expires_at ON revoked_access_tokens (expires_at);
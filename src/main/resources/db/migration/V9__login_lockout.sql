@@ -0,0 +1,4 @@
+-- Consecutive failed logins and the lock they trigger.
+
+ALTER TABLE users ADD COLUMN failed_login_attempts INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE users ADD COLUMN locked_until TIMESTAMP(6);
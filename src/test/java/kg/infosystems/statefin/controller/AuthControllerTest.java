@@ -63,7 +63,7 @@ class AuthControllerTest {
     @Test
     void login_Success() throws Exception {
         // Given
-        when(authService.login(any(LoginRequest.class))).thenReturn(loginResponse);
+        when(authService.login(any(LoginRequest.class), any())).thenReturn(loginResponse);
 
         // When/Then
         mockMvc.perform(post("/api/auth/login")
@@ -3,9 +3,12 @@ package kg.infosystems.statefin.integration;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import kg.infosystems.statefin.dto.request.LoginRequest;
+import kg.infosystems.statefin.dto.request.LogoutRequest;
+import kg.infosystems.statefin.dto.request.RefreshTokenRequest;
 import kg.infosystems.statefin.dto.request.UserRegistrationRequest;
 import kg.infosystems.statefin.dto.response.ApiResponse;
 import kg.infosystems.statefin.dto.response.LoginResponse;
+import kg.infosystems.statefin.security.jwt.JwtUtils;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
@@ -13,9 +16,15 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
 
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -31,6 +40,9 @@ class StateFinIntegrationTest {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private JwtUtils jwtUtils;
+
     private String extractTokenFromResponse(String responseContent) throws Exception {
         JsonNode jsonNode = objectMapper.readTree(responseContent);
         return jsonNode.path("data").path("accessToken").asText();
@@ -90,6 +102,335 @@ class StateFinIntegrationTest {
                 .andExpect(status().isOk());
     }
 
+    @Test
+    void adminCanScrollUsersWithCursor() throws Exception {
+        // Login as admin
+        LoginRequest adminLogin = new LoginRequest("testadmin", "TestAdmin123!");
+        MvcResult loginResult = mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(adminLogin)))
+                .andExpect(status().isOk())
+                .andReturn();
+        String accessToken = extractTokenFromResponse(loginResult.getResponse().getContentAsString());
+
+        // Walk all users two at a time, following the continuation token
+        List<Long> ids = new ArrayList<>();
+        String cursor = null;
+        do {
+            var request = get("/api/users/scroll")
+                    .param("size", "2")
+                    .header("Authorization", "Bearer " + accessToken);
+            if (cursor != null) {
+                request.param("cursor", cursor);
+            }
+            JsonNode data = objectMapper.readTree(mockMvc.perform(request)
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.data.totalElements").doesNotExist())
+                    .andReturn().getResponse().getContentAsString()).path("data");
+            data.path("content").forEach(user -> ids.add(user.path("id").asLong()));
+            cursor = data.path("hasNext").asBoolean() ? data.path("nextCursor").asText() : null;
+        } while (cursor != null);
+
+        assertThat(ids).hasSize(3).isSorted().doesNotHaveDuplicates();
+
+        // A tampered cursor is rejected
+        mockMvc.perform(get("/api/users/scroll")
+                        .param("cursor", "not-a-cursor")
+                        .header("Authorization", "Bearer " + accessToken))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void adminCanExportUsersAsNdjsonAndCsv() throws Exception {
+        // Login as admin
+        LoginRequest adminLogin = new LoginRequest("testadmin", "TestAdmin123!");
+        MvcResult loginResult = mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(adminLogin)))
+                .andExpect(status().isOk())
+                .andReturn();
+        String accessToken = extractTokenFromResponse(loginResult.getResponse().getContentAsString());
+
+        // NDJSON: one JSON document per active user
+        MvcResult ndjson = mockMvc.perform(get("/api/users/export")
+                        .header("Authorization", "Bearer " + accessToken))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String body = mockMvc.perform(asyncDispatch(ndjson))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andReturn().getResponse().getContentAsString();
+        List<JsonNode> users = new ArrayList<>();
+        for (String line : body.split("\n")) {
+            users.add(objectMapper.readTree(line));
+        }
+        assertThat(users).extracting(user -> user.path("username").asText())
+                .containsExactly("testadmin", "testmanager", "testuser");
+        assertThat(users.get(1).path("roles").toString()).isEqualTo("[\"MANAGER\"]");
+        assertThat(users.get(1).path("permissions").toString()).contains("USER_READ", "USER_WRITE");
+
+        // CSV: header plus one line per user
+        MvcResult csv = mockMvc.perform(get("/api/users/export")
+                        .param("format", "csv")
+                        .header("Authorization", "Bearer " + accessToken))
+                .andReturn();
+        String csvBody = mockMvc.perform(asyncDispatch(csv))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        assertThat(csvBody.split("\r\n")).hasSize(4);
+        assertThat(csvBody).startsWith("id,username,email");
+
+        // Unknown format
+        mockMvc.perform(get("/api/users/export")
+                        .param("format", "xml")
+                        .header("Authorization", "Bearer " + accessToken))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void adminCanBulkImportUsersWithPerRowErrors() throws Exception {
+        // Login as admin
+        LoginRequest adminLogin = new LoginRequest("testadmin", "TestAdmin123!");
+        MvcResult loginResult = mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(adminLogin)))
+                .andExpect(status().isOk())
+                .andReturn();
+        String accessToken = extractTokenFromResponse(loginResult.getResponse().getContentAsString());
+
+        // NDJSON with two good rows, an existing username, an in-file duplicate and an invalid row
+        StringBuilder ndjson = new StringBuilder();
+        for (UserRegistrationRequest row : List.of(
+                new UserRegistrationRequest("imported1", "imported1@example.com", "Imported123!", "Imported", "One"),
+                new UserRegistrationRequest("testuser", "other@example.com", "Imported123!", "Taken", "Name"),
+                new UserRegistrationRequest("imported2", "imported2@example.com", "Imported123!", "Imported", "Two"),
+                new UserRegistrationRequest("imported2", "imported3@example.com", "Imported123!", "Imported", "Dup"),
+                new UserRegistrationRequest("x", "not-an-email", "weak", "", "Bad"))) {
+            ndjson.append(objectMapper.writeValueAsString(row)).append('\n');
+        }
+
+        mockMvc.perform(post("/api/users/import")
+                        .header("Authorization", "Bearer " + accessToken)
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(ndjson.toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.received").value(5))
+                .andExpect(jsonPath("$.data.imported").value(2))
+                .andExpect(jsonPath("$.data.failed").value(3))
+                .andExpect(jsonPath("$.data.errors[*].index").value(containsInAnyOrder(1, 3, 4)));
+
+        // Imported users are listed with the default role
+        JsonNode users = objectMapper.readTree(mockMvc.perform(get("/api/users/scroll")
+                        .header("Authorization", "Bearer " + accessToken))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString()).path("data").path("content");
+        assertThat(users).extracting(user -> user.path("username").asText())
+                .containsExactly("testadmin", "testmanager", "testuser", "imported1", "imported2");
+        assertThat(users.get(4).path("roles").get(0).path("name").asText()).isEqualTo("USER");
+    }
+
+    @Test
+    void adminCanListMembersOfRolesAndPermissions() throws Exception {
+        // Login as admin
+        LoginRequest adminLogin = new LoginRequest("testadmin", "TestAdmin123!");
+        MvcResult loginResult = mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(adminLogin)))
+                .andExpect(status().isOk())
+                .andReturn();
+        String accessToken = extractTokenFromResponse(loginResult.getResponse().getContentAsString());
+        long managerRoleId = idByName("/api/roles/scroll", "MANAGER", accessToken);
+        long userWriteId = idByName("/api/permissions/scroll", "USER_WRITE", accessToken);
+
+        // Users holding the manager role
+        mockMvc.perform(get("/api/roles/{id}/users", managerRoleId)
+                        .header("Authorization", "Bearer " + accessToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.content[*].username").value(containsInAnyOrder("testmanager")))
+                .andExpect(jsonPath("$.data.hasNext").value(false));
+
+        // Roles granting USER_WRITE, one per page
+        MvcResult firstPage = mockMvc.perform(get("/api/permissions/{id}/roles", userWriteId)
+                        .param("size", "1")
+                        .header("Authorization", "Bearer " + accessToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.hasNext").value(true))
+                .andReturn();
+        JsonNode first = objectMapper.readTree(firstPage.getResponse().getContentAsString()).path("data");
+        JsonNode second = objectMapper.readTree(mockMvc.perform(get("/api/permissions/{id}/roles", userWriteId)
+                        .param("size", "1")
+                        .param("cursor", first.path("nextCursor").asText())
+                        .header("Authorization", "Bearer " + accessToken))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString()).path("data");
+        assertThat(List.of(first.path("content").get(0).path("name").asText(),
+                second.path("content").get(0).path("name").asText()))
+                .containsExactlyInAnyOrder("MANAGER", "ADMIN");
+        assertThat(second.path("hasNext").asBoolean()).isFalse();
+
+        // Unknown role
+        mockMvc.perform(get("/api/roles/{id}/users", 999999L)
+                        .header("Authorization", "Bearer " + accessToken))
+                .andExpect(status().isNotFound());
+    }
+
+    private long idByName(String scrollPath, String name, String accessToken) throws Exception {
+        JsonNode content = objectMapper.readTree(mockMvc.perform(get(scrollPath)
+                        .header("Authorization", "Bearer " + accessToken))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString()).path("data").path("content");
+        for (JsonNode node : content) {
+            if (node.path("name").asText().equals(name)) {
+                return node.path("id").asLong();
+            }
+        }
+        throw new AssertionError("No entry named " + name);
+    }
+
+    @Test
+    void usernamesAndEmailsIgnoreCase() throws Exception {
+        // Registering a username or email that differs only in case is rejected
+        UserRegistrationRequest sameUsername = new UserRegistrationRequest(
+                "TestUser", "fresh@example.com", "Password123!", "Case", "User");
+        mockMvc.perform(post("/api/auth/register")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(sameUsername)))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.error").value("Username is already taken"));
+
+        UserRegistrationRequest sameEmail = new UserRegistrationRequest(
+                "freshuser", "TestUser@Test.com", "Password123!", "Case", "User");
+        mockMvc.perform(post("/api/auth/register")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(sameEmail)))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.error").value("Email is already registered"));
+
+        // Login matches the username regardless of case
+        LoginRequest login = new LoginRequest("TESTADMIN", "TestAdmin123!");
+        mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(login)))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void refreshTokensRotateAndReplayRevokesTheSession() throws Exception {
+        // Login
+        LoginRequest login = new LoginRequest("testuser", "TestUser123!");
+        String loginBody = mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(login)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        String firstRefreshToken = objectMapper.readTree(loginBody).path("data").path("refreshToken").asText();
+
+        // A refresh rotates the token
+        String refreshBody = mockMvc.perform(post("/api/auth/refresh")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new RefreshTokenRequest(firstRefreshToken))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.user.username").value("testuser"))
+                .andReturn().getResponse().getContentAsString();
+        String secondRefreshToken = objectMapper.readTree(refreshBody).path("data").path("refreshToken").asText();
+        assertThat(secondRefreshToken).isNotEqualTo(firstRefreshToken);
+
+        // Replaying the rotated token is rejected and revokes the session
+        mockMvc.perform(post("/api/auth/refresh")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new RefreshTokenRequest(firstRefreshToken))))
+                .andExpect(status().isUnauthorized())
+                .andExpect(jsonPath("$.error").value("Refresh token has already been used"));
+        mockMvc.perform(post("/api/auth/refresh")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new RefreshTokenRequest(secondRefreshToken))))
+                .andExpect(status().isUnauthorized())
+                .andExpect(jsonPath("$.error").value("Refresh token has been revoked"));
+
+        // An access token is not accepted as a refresh token
+        String accessToken = extractTokenFromResponse(loginBody);
+        mockMvc.perform(post("/api/auth/refresh")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new RefreshTokenRequest(accessToken))))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void expiredAccessTokenDoesNotBlockPublicEndpoints() throws Exception {
+        // Login with access tokens that are already expired when issued
+        ReflectionTestUtils.setField(jwtUtils, "jwtExpirationMs", -60_000L);
+        String loginBody = mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new LoginRequest("testuser", "TestUser123!"))))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        String expiredAccessToken = extractTokenFromResponse(loginBody);
+        String refreshToken = objectMapper.readTree(loginBody).path("data").path("refreshToken").asText();
+
+        // Protected endpoints refuse the token
+        mockMvc.perform(get("/api/users/me").header("Authorization", "Bearer " + expiredAccessToken))
+                .andExpect(status().isUnauthorized())
+                .andExpect(jsonPath("$.error").value("Invalid or expired token"));
+
+        // The client can still refresh while sending the stale token
+        mockMvc.perform(post("/api/auth/refresh")
+                        .header("Authorization", "Bearer " + expiredAccessToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new RefreshTokenRequest(refreshToken))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.user.username").value("testuser"));
+    }
+
+    @Test
+    void logoutRevokesTheAccessTokenAndSession() throws Exception {
+        // Login twice, as two independent sessions
+        LoginRequest login = new LoginRequest("testuser", "TestUser123!");
+        String firstBody = mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(login)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        String secondBody = mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(login)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        String accessToken = extractTokenFromResponse(firstBody);
+        String refreshToken = objectMapper.readTree(firstBody).path("data").path("refreshToken").asText();
+        String otherAccessToken = extractTokenFromResponse(secondBody);
+
+        mockMvc.perform(get("/api/users/me").header("Authorization", "Bearer " + accessToken))
+                .andExpect(status().isOk());
+
+        // Logout revokes the access token and its session
+        mockMvc.perform(post("/api/auth/logout")
+                        .header("Authorization", "Bearer " + accessToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new LogoutRequest(refreshToken))))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/users/me").header("Authorization", "Bearer " + accessToken))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(post("/api/auth/refresh")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new RefreshTokenRequest(refreshToken))))
+                .andExpect(status().isUnauthorized());
+
+        // The other session is untouched
+        mockMvc.perform(get("/api/users/me").header("Authorization", "Bearer " + otherAccessToken))
+                .andExpect(status().isOk());
+
+        // An already revoked refresh token does not fail the logout, and the access token is still revoked
+        mockMvc.perform(post("/api/auth/logout")
+                        .header("Authorization", "Bearer " + otherAccessToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new LogoutRequest(refreshToken))))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/users/me").header("Authorization", "Bearer " + otherAccessToken))
+                .andExpect(status().isUnauthorized());
+    }
+
     @Test
     void unauthorizedAccessIsBlocked() throws Exception {
         // Try to access protected endpoint without token
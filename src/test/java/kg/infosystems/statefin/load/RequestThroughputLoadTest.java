@@ -0,0 +1,127 @@
+package kg.infosystems.statefin.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import kg.infosystems.statefin.dto.request.LoginRequest;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Fires authenticated requests at a real server, logs throughput and latency percentiles and fails below the expected
+ * throughput or above the expected p99 latency. Subclasses select the threading model; run both with
+ * {@code mvn test -Pload-test} to compare them on the same machine. The default thresholds only catch gross
+ * regressions on a small machine; environments with known capacity set {@code -Dload.min-throughput} (requests per
+ * second) and {@code -Dload.max-p99-ms}.
+ */
+@Tag("load")
+abstract class RequestThroughputLoadTest {
+
+    private static final Logger log = LoggerFactory.getLogger(RequestThroughputLoadTest.class);
+
+    private static final int WARMUP_REQUESTS = 500;
+    private static final int REQUESTS = 5000;
+    private static final int CONCURRENCY = 400;
+    private static final double MIN_THROUGHPUT = Double.parseDouble(System.getProperty("load.min-throughput", "50"));
+    private static final long MAX_P99_MS = Long.getLong("load.max-p99-ms", 15_000);
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void authenticatedRequests() throws Exception {
+        HttpClient client = HttpClient.newBuilder()
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        String accessToken = login(client);
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/users/me"))
+                .header("Authorization", "Bearer " + accessToken)
+                .GET()
+                .build();
+
+        run(client, request, WARMUP_REQUESTS);
+        Result result = run(client, request, REQUESTS);
+
+        log.info("{}: {} requests, concurrency {}, {} req/s, p50 {} ms, p95 {} ms, p99 {} ms, max {} ms, non-2xx {}",
+                getClass().getSimpleName(), REQUESTS, CONCURRENCY, Math.round(result.throughput()),
+                result.percentile(50), result.percentile(95), result.percentile(99), result.percentile(100),
+                result.failures());
+        assertThat(result.failures()).isZero();
+        assertThat(result.throughput()).as("requests per second").isGreaterThanOrEqualTo(MIN_THROUGHPUT);
+        assertThat(result.percentile(99)).as("p99 latency in ms").isLessThanOrEqualTo(MAX_P99_MS);
+    }
+
+    private String login(HttpClient client) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/auth/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(
+                        objectMapper.writeValueAsString(new LoginRequest("testadmin", "TestAdmin123!"))))
+                .build();
+        String body = client.send(request, HttpResponse.BodyHandlers.ofString()).body();
+        return objectMapper.readTree(body).path("data").path("accessToken").asText();
+    }
+
+    private Result run(HttpClient client, HttpRequest request, int requests) throws Exception {
+        List<Long> latencies = Collections.synchronizedList(new ArrayList<>(requests));
+        AtomicInteger failures = new AtomicInteger();
+        Semaphore inFlight = new Semaphore(CONCURRENCY);
+        List<CompletableFuture<?>> futures = new ArrayList<>(requests);
+
+        long start = System.nanoTime();
+        try (ExecutorService callers = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < requests; i++) {
+                inFlight.acquire();
+                long sent = System.nanoTime();
+                futures.add(client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                        .whenCompleteAsync((response, error) -> {
+                            latencies.add(System.nanoTime() - sent);
+                            if (error != null || response.statusCode() / 100 != 2) {
+                                failures.incrementAndGet();
+                            }
+                            inFlight.release();
+                        }, callers));
+            }
+            CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).exceptionally(e -> null).join();
+        }
+        long elapsed = System.nanoTime() - start;
+
+        List<Long> sorted = new ArrayList<>(latencies);
+        Collections.sort(sorted);
+        return new Result(sorted, elapsed, failures.get());
+    }
+
+    private record Result(List<Long> sortedLatencies, long elapsedNanos, int failures) {
+
+        double throughput() {
+            return sortedLatencies.size() / (elapsedNanos / 1_000_000_000.0);
+        }
+
+        long percentile(int percentile) {
+            int index = (int) Math.ceil(percentile / 100.0 * sortedLatencies.size()) - 1;
+            return Duration.ofNanos(sortedLatencies.get(Math.max(0, index))).toMillis();
+        }
+    }
+
+}
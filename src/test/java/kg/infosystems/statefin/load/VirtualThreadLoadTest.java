@@ -0,0 +1,14 @@
+package kg.infosystems.statefin.load;
+
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.threads.virtual.enabled=true",
+        "server.tomcat.threads.max=50",
+        "spring.datasource.hikari.maximum-pool-size=10",
+        "app.rate-limit.enabled=false"
+})
+@ActiveProfiles("test")
+class VirtualThreadLoadTest extends RequestThroughputLoadTest {
+}
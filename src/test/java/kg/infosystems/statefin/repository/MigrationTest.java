@@ -0,0 +1,187 @@
+package kg.infosystems.statefin.repository;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs db/migration against PostgreSQL and starts the application on the result with {@code ddl-auto=validate}, as
+ * prod does, so a mapping that drifts from the migrations fails here. Also covers what H2 cannot: the V6 constraint
+ * swap, the V2 sequence positions on a database that already has rows, and plans that use the V5 partial indexes.
+ * <p>
+ * Needs Docker; skipped where it is not available.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+@SpringBootTest(properties = {
+        "spring.flyway.enabled=true",
+        "spring.jpa.hibernate.ddl-auto=validate",
+        "spring.jpa.database-platform=org.hibernate.dialect.PostgreSQLDialect"
+})
+@ActiveProfiles("test")
+@DirtiesContext
+@Import(QueryPlanTest.StatementCaptureConfig.class)
+class MigrationTest {
+
+    @Container
+    static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("spring.datasource.driver-class-name", postgres::getDriverClassName);
+    }
+
+    @Autowired
+    private Flyway flyway;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private QueryPlanTest.CapturingStatementInspector statementInspector;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private PermissionRepository permissionRepository;
+
+    @Test
+    void migrate_AppliesEveryMigrationAndMatchesTheMappings() {
+        // The context only starts if Hibernate validated the migrated schema
+        assertThat(flyway.info().current().getVersion().getVersion()).isEqualTo("10");
+        assertThat(flyway.info().pending()).isEmpty();
+    }
+
+    @Test
+    void migrate_CreatesPartialIndexesForActiveRows() {
+        // When
+        var definitions = jdbcTemplate.queryForList("""
+                SELECT indexdef FROM pg_indexes
+                WHERE schemaname = 'public'
+                  AND indexname IN ('idx_users_active_id', 'idx_users_active_created_at',
+                                    'idx_roles_active_id', 'idx_permissions_active_id')""", String.class);
+
+        // Then
+        assertThat(definitions).hasSize(4).allSatisfy(definition -> assertThat(definition).endsWith("WHERE active"));
+    }
+
+    @Test
+    void migrate_CarriesExistingRowsForward() {
+        // Given - a database created before the migrations, as baseline-on-migrate finds it
+        Flyway baseline = Flyway.configure()
+                .dataSource(postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword())
+                .schemas("legacy")
+                .target("1")
+                .load();
+        baseline.migrate();
+        jdbcTemplate.update("""
+                INSERT INTO legacy.users (active, created_at, email, first_name, last_name, password, username)
+                VALUES (true, now(), 'Alice@Example.com', 'Alice', 'Smith', 'x', 'Alice'),
+                       (true, now(), 'bob@example.com', 'Bob', 'Jones', 'x', 'bob')""");
+        jdbcTemplate.update("""
+                INSERT INTO legacy.users (id, active, created_at, email, first_name, last_name, password, username)
+                VALUES (500, false, now(), 'carol@example.com', 'Carol', 'White', 'x', 'carol')""");
+        jdbcTemplate.update("INSERT INTO legacy.roles (active, created_at, name) VALUES (true, now(), 'LEGACY')");
+
+        // When
+        Flyway.configure().configuration(baseline.getConfiguration()).target("latest").load().migrate();
+
+        // Then - sequences continue after the existing ids
+        assertThat(jdbcTemplate.queryForObject("SELECT nextval('legacy.users_seq')", Long.class)).isEqualTo(501L);
+        assertThat(jdbcTemplate.queryForObject("SELECT nextval('legacy.roles_seq')", Long.class)).isEqualTo(2L);
+        assertThat(jdbcTemplate.queryForObject("SELECT nextval('legacy.permissions_seq')", Long.class)).isEqualTo(1L);
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT column_default FROM information_schema.columns WHERE table_schema = 'legacy' "
+                        + "AND table_name = 'users' AND column_name = 'id'", String.class)).isNull();
+
+        // Then - identities are normalized and only the normalized columns are unique
+        assertThat(jdbcTemplate.queryForList(
+                "SELECT username_normalized || ' ' || email_normalized FROM legacy.users ORDER BY id", String.class))
+                .containsExactly("alice alice@example.com", "bob bob@example.com", "carol carol@example.com");
+        assertThat(jdbcTemplate.queryForList(
+                "SELECT conname FROM pg_constraint WHERE conrelid = 'legacy.users'::regclass AND contype = 'u'",
+                String.class))
+                .containsExactlyInAnyOrder("uk_users_username_normalized", "uk_users_email_normalized");
+    }
+
+    @Test
+    void activeRowQueries_UsePartialIndexes() {
+        // Given - enough users, half of them inactive, for the planner to tell the indexes apart
+        jdbcTemplate.update("""
+                INSERT INTO users (id, active, created_at, email, email_normalized, first_name, last_name, password,
+                                   username, username_normalized)
+                SELECT 1000000 + g, g % 2 = 0, now() - g * interval '1 minute', 'plan' || g || '@example.com',
+                       'plan' || g || '@example.com', 'Plan', 'User', 'x', 'plan' || g, 'plan' || g
+                FROM generate_series(1, 2000) g""");
+        jdbcTemplate.execute("VACUUM ANALYZE users");
+
+        transactionTemplate.executeWithoutResult(status -> {
+            // Without sequential scans the planner has to pick among the indexes, which is what is checked
+            jdbcTemplate.execute("SET LOCAL enable_seqscan = off");
+
+            // Then
+            assertThat(explain(sqlOf(() -> userRepository.findActiveIdsAfter(0, Limit.of(101)))))
+                    .contains("idx_users_active_id");
+            assertThat(explain(sqlOf(() ->
+                    userRepository.findActiveIds(PageRequest.of(0, 20, Sort.by("createdAt", "id"))))))
+                    .contains("idx_users_active_created_at");
+            assertThat(explain(sqlOf(() -> userRepository.findAuthzVersionById(1L)))).doesNotContain("Seq Scan");
+            assertThat(explain(sqlOf(() -> roleRepository.findActiveIdsAfter(0, Limit.of(101)))))
+                    .doesNotContain("Seq Scan");
+            assertThat(explain(sqlOf(() -> permissionRepository.findActiveAfter(0, Limit.of(101)))))
+                    .doesNotContain("Seq Scan");
+        });
+    }
+
+    /**
+     * Returns the first statement issued by the call, which is the repository query itself.
+     */
+    private String sqlOf(Runnable repositoryCall) {
+        statementInspector.statements.clear();
+        repositoryCall.run();
+        assertThat(statementInspector.statements).isNotEmpty();
+        return statementInspector.statements.get(0);
+    }
+
+    /**
+     * Plans the statement for any parameter values, which is how a cached prepared statement is executed.
+     */
+    private String explain(String sql) {
+        StringBuilder numbered = new StringBuilder("EXPLAIN (GENERIC_PLAN) ");
+        int parameter = 0;
+        for (char c : sql.toCharArray()) {
+            if (c == '?') {
+                numbered.append('$').append(++parameter);
+            } else {
+                numbered.append(c);
+            }
+        }
+        return String.join("\n", jdbcTemplate.queryForList(numbered.toString(), String.class));
+    }
+
+}
@@ -0,0 +1,135 @@
+package kg.infosystems.statefin.repository;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Calls the repository methods, captures the SQL Hibernate sends for each one and runs EXPLAIN for it against the
+ * schema built from the mappings, checking that every table access goes through an index. Parameters are bound as
+ * NULL; H2 chooses the plan when the statement is prepared, not from the values.
+ * <p>
+ * The partial indexes that V5 creates for active rows cannot be mapped, so here the keyset queries only need to
+ * avoid table scans; {@link MigrationTest} checks that PostgreSQL uses them.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@DirtiesContext
+@Transactional
+class QueryPlanTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private CapturingStatementInspector statementInspector;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private PermissionRepository permissionRepository;
+
+    @Autowired
+    private UserEffectivePermissionRepository userEffectivePermissionRepository;
+
+    @Test
+    void userQueries_AreIndexBacked() {
+        assertIndexBacked(sqlOf(() -> userRepository.findByUsername("testadmin")), "UK_USERS_USERNAME_NORMALIZED");
+        assertIndexBacked(sqlOf(() -> userRepository.findByUsernameWithRoles("testadmin")),
+                "UK_USERS_USERNAME_NORMALIZED");
+        assertIndexBacked(sqlOf(() -> userRepository.findByEmail("admin@test.com")), "UK_USERS_EMAIL_NORMALIZED");
+        assertIndexBacked(sqlOf(() -> userRepository.findActiveIdsAfter(0, Limit.of(101))));
+        assertIndexBacked(sqlOf(() -> userRepository.findAuthzVersionById(1L)));
+        assertIndexBacked(sqlOf(() -> userRepository.findActiveIdsByRoleIdAfter(2L, 0, Limit.of(101))));
+        assertIndexBacked(sqlOf(() -> userRepository.incrementAuthzVersionByPermissionId(3L)));
+    }
+
+    @Test
+    void roleAndPermissionQueries_AreIndexBacked() {
+        assertIndexBacked(sqlOf(() -> roleRepository.findByName("ADMIN")), "UK_ROLES_NAME");
+        assertIndexBacked(sqlOf(() -> roleRepository.findActiveIdsAfter(0, Limit.of(101))));
+        assertIndexBacked(sqlOf(() -> roleRepository.findActiveIdsByPermissionIdAfter(1L, 0, Limit.of(101))));
+        assertIndexBacked(sqlOf(() -> permissionRepository.findByName("USER_READ")),
+                "UK_PERMISSIONS_NAME_RESOURCE_ACTION");
+        assertIndexBacked(sqlOf(() -> permissionRepository.findByResourceAndAction("USER", "READ")),
+                "IDX_PERMISSIONS_RESOURCE_ACTION");
+        assertIndexBacked(sqlOf(() -> permissionRepository.findActiveAfter(0, Limit.of(101))));
+        assertIndexBacked(sqlOf(() ->
+                userEffectivePermissionRepository.findActiveUserIdsByPermissionIdAfter(1L, 0, Limit.of(101))));
+    }
+
+    /**
+     * Returns the first statement issued by the call, which is the repository query itself.
+     */
+    private String sqlOf(Runnable repositoryCall) {
+        statementInspector.statements.clear();
+        repositoryCall.run();
+        assertThat(statementInspector.statements).isNotEmpty();
+        return statementInspector.statements.get(0);
+    }
+
+    private void assertIndexBacked(String sql, String expectedIndex) {
+        assertThat(explain(sql)).as(sql).contains(expectedIndex).doesNotContainIgnoringCase("tableScan");
+    }
+
+    /**
+     * For joins of small tables, and for keyset queries served by the primary key, the planner may drive from either side, so only require that no table is scanned.
+     */
+    private void assertIndexBacked(String sql) {
+        assertThat(explain(sql)).as(sql).doesNotContainIgnoringCase("tableScan");
+    }
+
+    private String explain(String sql) {
+        return jdbcTemplate.query("EXPLAIN " + sql, statement -> {
+            int parameterCount = statement.getParameterMetaData().getParameterCount();
+            for (int i = 1; i <= parameterCount; i++) {
+                statement.setObject(i, null);
+            }
+        }, resultSet -> resultSet.next() ? resultSet.getString(1) : null);
+    }
+
+    static class CapturingStatementInspector implements StatementInspector {
+
+        final List<String> statements = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            statements.add(sql);
+            return sql;
+        }
+    }
+
+    @TestConfiguration
+    static class StatementCaptureConfig {
+
+        @Bean
+        CapturingStatementInspector capturingStatementInspector() {
+            return new CapturingStatementInspector();
+        }
+
+        @Bean
+        HibernatePropertiesCustomizer statementInspectorCustomizer(CapturingStatementInspector statementInspector) {
+            return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, statementInspector);
+        }
+    }
+
+}
@@ -0,0 +1,102 @@
+package kg.infosystems.statefin.security;
+
+import kg.infosystems.statefin.entity.Permission;
+import kg.infosystems.statefin.repository.PermissionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AuthorityBitSetPermissionEvaluatorTest {
+
+    private AuthorityBitSetPermissionEvaluator permissionEvaluator;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        PermissionRepository permissionRepository = mock(PermissionRepository.class);
+        when(permissionRepository.findAll()).thenReturn(List.of(
+                permission(1L, "USER_READ"),
+                permission(2L, "USER_WRITE"),
+                permission(70L, "PERMISSION_DELETE")));
+        ObjectProvider<PermissionIndex> provider = mock(ObjectProvider.class);
+        when(provider.getObject()).thenReturn(new PermissionIndex(permissionRepository, Duration.ofSeconds(30)));
+        permissionEvaluator = new AuthorityBitSetPermissionEvaluator(provider);
+    }
+
+    @Test
+    void bitSet_EncodeDecodeRoundTrip() {
+        // Given
+        PermissionBitSet bits = PermissionBitSet.of(IntStream.of(1, 2, 70));
+
+        // When
+        PermissionBitSet decoded = PermissionBitSet.decode(bits.encode());
+
+        // Then
+        assertThat(decoded).isEqualTo(bits);
+        assertThat(decoded.ordinals()).containsExactly(1, 2, 70);
+        assertThat(decoded.contains(3)).isFalse();
+    }
+
+    @Test
+    void authorityOf_UnknownOrdinalsDoNotReloadWithinInterval() {
+        // Given
+        PermissionRepository permissionRepository = mock(PermissionRepository.class);
+        when(permissionRepository.findAll()).thenReturn(List.of(permission(1L, "USER_READ")));
+        PermissionIndex permissionIndex = new PermissionIndex(permissionRepository, Duration.ofHours(1));
+
+        // When
+        IntStream.range(0, 100).forEach(i -> permissionIndex.authorityOf(500 + i));
+
+        // Then - only the initial load reads the table
+        assertThat(permissionIndex.authorityOf(1).getAuthority()).isEqualTo("USER_READ");
+        assertThat(permissionIndex.authorityOf(500)).isNull();
+        verify(permissionRepository, times(1)).findAll();
+    }
+
+    @Test
+    void hasAuthority_UsesPrincipalBits() {
+        // Given
+        Authentication authentication = authentication(PermissionBitSet.of(IntStream.of(1, 70)));
+
+        // Then
+        assertThat(permissionEvaluator.hasAuthority(authentication, "USER_READ")).isTrue();
+        assertThat(permissionEvaluator.hasAuthority(authentication, "PERMISSION_DELETE")).isTrue();
+        assertThat(permissionEvaluator.hasAuthority(authentication, "USER_WRITE")).isFalse();
+        assertThat(permissionEvaluator.hasPermission(authentication, null, "USER_READ")).isTrue();
+    }
+
+    @Test
+    void hasAuthority_FallsBackToAuthoritiesForUnindexedNames() {
+        // Given
+        Authentication authentication = authentication(PermissionBitSet.EMPTY);
+
+        // Then
+        assertThat(permissionEvaluator.hasAuthority(authentication, "REPORT_EXPORT")).isTrue();
+        assertThat(permissionEvaluator.hasAuthority(null, "USER_READ")).isFalse();
+    }
+
+    private static Authentication authentication(PermissionBitSet bits) {
+        UserPrincipal principal = new UserPrincipal(
+                1L, "testuser", "test@example.com", null, true, 0L, bits,
+                List.of(new SimpleGrantedAuthority("REPORT_EXPORT")));
+        return new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities());
+    }
+
+    private static Permission permission(Long id, String name) {
+        return Permission.builder().id(id).name(name).resource("R").action("A").active(true).build();
+    }
+
+}
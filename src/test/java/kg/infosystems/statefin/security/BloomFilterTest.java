@@ -0,0 +1,42 @@
+package kg.infosystems.statefin.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BloomFilterTest {
+
+    @Test
+    void mightContain_NeverMissesAnAddedValue() {
+        // Given
+        BloomFilter filter = BloomFilter.create(1000, 0.001);
+        String[] added = IntStream.range(0, 1000).mapToObj(i -> UUID.randomUUID().toString()).toArray(String[]::new);
+
+        // When
+        for (String value : added) {
+            filter.put(value);
+        }
+
+        // Then
+        assertThat(added).allMatch(filter::mightContain);
+    }
+
+    @Test
+    void mightContain_FalsePositivesStayNearTheConfiguredRate() {
+        // Given
+        BloomFilter filter = BloomFilter.create(10_000, 0.001);
+        IntStream.range(0, 10_000).forEach(i -> filter.put(UUID.randomUUID().toString()));
+
+        // When
+        long falsePositives = IntStream.range(0, 100_000)
+                .filter(i -> filter.mightContain(UUID.randomUUID().toString()))
+                .count();
+
+        // Then - 100 expected at 0.1%
+        assertThat(falsePositives).isLessThan(300);
+    }
+
+}
@@ -1,5 +1,9 @@
 package kg.infosystems.statefin.security;
 
+import kg.infosystems.statefin.security.jwt.JwtClaims;
+import kg.infosystems.statefin.entity.Permission;
+import kg.infosystems.statefin.repository.PermissionRepository;
+import kg.infosystems.statefin.security.jwt.JwtKeyManager;
 import kg.infosystems.statefin.security.jwt.JwtUtils;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -8,9 +12,15 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.test.util.ReflectionTestUtils;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.util.List;
+import java.util.Map;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
 class JwtUtilsTest {
 
@@ -20,10 +30,8 @@ class JwtUtilsTest {
 
     @BeforeEach
     void setUp() {
-        jwtUtils = new JwtUtils();
-        ReflectionTestUtils.setField(jwtUtils, "jwtSecret", "testSecretKeyThatIsLongEnoughForHS256Algorithm");
-        ReflectionTestUtils.setField(jwtUtils, "jwtExpirationMs", 86400000L);
-        ReflectionTestUtils.setField(jwtUtils, "refreshExpirationMs", 604800000L);
+        jwtUtils = createJwtUtils(new JwtKeyManager("HS256", "testSecretKeyThatIsLongEnoughForHS256Algorithm", Duration.ZERO, false, "", "", "",
+                86400000L, 604800000L));
 
         userPrincipal = new UserPrincipal(
                 1L,
@@ -31,6 +39,8 @@ class JwtUtilsTest {
                 "test@example.com",
                 "password",
                 true,
+                0L,
+                null,
                 List.of(new SimpleGrantedAuthority("USER_READ"))
         );
 
@@ -108,15 +118,162 @@ class JwtUtilsTest {
         assertThat(authorities).contains("USER_READ");
     }
 
+    @Test
+    void parseJwtToken_ReturnsAllClaims() {
+        // Given
+        String token = jwtUtils.generateJwtToken(authentication);
+
+        // When
+        JwtClaims claims = jwtUtils.parseJwtToken(token);
+
+        // Then
+        assertThat(claims.getSubject()).isEqualTo("testuser");
+        assertThat(claims.getUserId()).isEqualTo(1L);
+        assertThat(claims.getEmail()).isEqualTo("test@example.com");
+        assertThat(claims.getPermissions().contains(1)).isTrue();
+        assertThat(claims.getAuthorities()).isEmpty();
+        assertThat(claims.isRefreshToken()).isFalse();
+        assertThat(claims.isExpired()).isFalse();
+    }
+
+    @Test
+    void generateJwtToken_UnindexedAuthorityKeptByName() {
+        // Given
+        UserPrincipal principal = new UserPrincipal(
+                1L, "testuser", "test@example.com", "password", true, 0L, null,
+                List.of(new SimpleGrantedAuthority("USER_READ"), new SimpleGrantedAuthority("REPORT_EXPORT")));
+        String token = jwtUtils.generateJwtToken(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+
+        // When
+        JwtClaims claims = jwtUtils.parseJwtToken(token);
+
+        // Then
+        assertThat(claims.getPermissions().contains(1)).isTrue();
+        assertThat(claims.getAuthorities()).containsExactly("REPORT_EXPORT");
+        assertThat(jwtUtils.getAuthoritiesFromJwtToken(token)).containsExactlyInAnyOrder("USER_READ", "REPORT_EXPORT");
+    }
+
+    @Test
+    void parseJwtToken_InvalidToken() {
+        assertThatThrownBy(() -> jwtUtils.parseJwtToken("invalid.jwt.token"))
+                .isInstanceOf(io.jsonwebtoken.JwtException.class);
+    }
+
+    @Test
+    void getUserPrincipalFromJwtToken_Success() {
+        // Given
+        String token = jwtUtils.generateJwtToken(authentication);
+
+        // When
+        UserPrincipal principal = jwtUtils.getUserPrincipalFromJwtToken(token);
+
+        // Then
+        assertThat(principal.getId()).isEqualTo(1L);
+        assertThat(principal.getUsername()).isEqualTo("testuser");
+        assertThat(principal.getEmail()).isEqualTo("test@example.com");
+        assertThat(principal.isEnabled()).isTrue();
+        assertThat(principal.getAuthorities())
+                .extracting("authority")
+                .containsExactly("USER_READ");
+    }
+
+    @Test
+    void getUserPrincipalFromJwtToken_RefreshTokenRejected() {
+        // Given
+        String refreshToken = jwtUtils.generateRefreshToken(authentication, "family-1", "token-1", Instant.now().plus(Duration.ofDays(7)));
+
+        // When/Then
+        assertThatThrownBy(() -> jwtUtils.getUserPrincipalFromJwtToken(refreshToken))
+                .isInstanceOf(io.jsonwebtoken.JwtException.class);
+    }
+
     @Test
     void generateRefreshToken_Success() {
         // When
-        String refreshToken = jwtUtils.generateRefreshToken(authentication);
+        String refreshToken = jwtUtils.generateRefreshToken(authentication, "family-1", "token-1", Instant.now().plus(Duration.ofDays(7)));
 
         // Then
         assertThat(refreshToken).isNotNull();
         assertThat(refreshToken).isNotEmpty();
         assertThat(jwtUtils.validateJwtToken(refreshToken)).isTrue();
+        JwtClaims claims = jwtUtils.parseJwtToken(refreshToken);
+        assertThat(claims.isRefreshToken()).isTrue();
+        assertThat(claims.getFamilyId()).isEqualTo("family-1");
+        assertThat(claims.getTokenId()).isEqualTo("token-1");
+    }
+
+    @Test
+    void generateJwtToken_Es256RotationKeepsRetiredKeyVerifiable() {
+        // Given
+        JwtKeyManager keyManager = new JwtKeyManager("ES256", "", Duration.ofDays(7), true, "", "", "", 86400000L, 604800000L);
+        JwtUtils es256JwtUtils = createJwtUtils(keyManager);
+        String before = es256JwtUtils.generateJwtToken(authentication);
+        String retiredKeyId = keyManager.activeKey().getKeyId();
+        String nextKeyId = keyManager.publishedKeys().get(1).getId();
+
+        // When
+        keyManager.rotate();
+        String after = es256JwtUtils.generateJwtToken(authentication);
+
+        // Then
+        assertThat(keyManager.activeKey().getKeyId()).isEqualTo(nextKeyId);
+        assertThat(keyManager.publishedKeys()).extracting(Map::keySet).allSatisfy(keys -> assertThat(keys).doesNotContain("d"));
+        assertThat(keyManager.publishedKeys()).extracting("kid").contains(retiredKeyId, nextKeyId);
+        assertThat(es256JwtUtils.parseJwtToken(before).getSubject()).isEqualTo("testuser");
+        assertThat(es256JwtUtils.parseJwtToken(after).getSubject()).isEqualTo("testuser");
+        assertThatThrownBy(() -> jwtUtils.parseJwtToken(after))
+                .isInstanceOf(io.jsonwebtoken.JwtException.class);
+    }
+
+    @Test
+    void generateJwtToken_EdDsaVerifiesByKeyId() {
+        // Given
+        JwtKeyManager keyManager = new JwtKeyManager("EdDSA", "", Duration.ZERO, true, "", "", "", 86400000L, 604800000L);
+        JwtUtils edDsaJwtUtils = createJwtUtils(keyManager);
+
+        // When
+        String token = edDsaJwtUtils.generateJwtToken(authentication);
+
+        // Then
+        assertThat(edDsaJwtUtils.getUserPrincipalFromJwtToken(token).getUsername()).isEqualTo("testuser");
+        assertThat(keyManager.publishedKeys()).singleElement()
+                .satisfies(jwk -> assertThat(jwk).containsEntry("crv", "Ed25519").containsEntry("alg", "EdDSA"));
+    }
+
+    @Test
+    void keyManager_RequiresKeyStoreUnlessKeyGenerationIsEnabled() {
+        assertThatThrownBy(() -> new JwtKeyManager("ES256", "", Duration.ofDays(7), false, "", "", "", 86400000L, 604800000L))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("jwt.signing.key-store");
+    }
+
+    @Test
+    void keyManager_SchedulesKeyStoreKeysByCertificateStartDate() {
+        // Given - k1 valid from 2020, k2 from 2021 and k3 from 2099
+        JwtKeyManager keyManager = new JwtKeyManager("ES256", "", Duration.ZERO, false, "classpath:jwt-signing-keys.p12",
+                "changeit", "", 86400000L, 604800000L);
+        JwtUtils keyStoreJwtUtils = createJwtUtils(keyManager);
+
+        // When
+        String token = keyStoreJwtUtils.generateJwtToken(authentication);
+        keyManager.rotateIfDue();
+
+        // Then - k2 signs, k3 is published ahead and k1, superseded long ago, is dropped
+        assertThat(keyManager.activeKey().getKeyId()).isEqualTo("k2");
+        assertThat(keyManager.publishedKeys()).extracting("kid").containsExactly("k2", "k3");
+        assertThat(keyStoreJwtUtils.parseJwtToken(token).getSubject()).isEqualTo("testuser");
+    }
+
+    private static JwtUtils createJwtUtils(JwtKeyManager keyManager) {
+        PermissionRepository permissionRepository = mock(PermissionRepository.class);
+        when(permissionRepository.findAll()).thenReturn(List.of(
+                Permission.builder().id(1L).name("USER_READ").resource("USER").action("READ").active(true).build()));
+        JwtUtils jwtUtils = new JwtUtils(new PermissionIndex(permissionRepository, Duration.ofSeconds(30)), keyManager);
+        ReflectionTestUtils.setField(jwtUtils, "jwtExpirationMs", 86400000L);
+        ReflectionTestUtils.setField(jwtUtils, "refreshExpirationMs", 604800000L);
+        jwtUtils.init();
+        return jwtUtils;
     }
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,106 @@
+package kg.infosystems.statefin.security;
+
+import kg.infosystems.statefin.dto.request.LoginRequest;
+import kg.infosystems.statefin.entity.User;
+import kg.infosystems.statefin.exception.TooManyRequestsException;
+import kg.infosystems.statefin.repository.UserRepository;
+import kg.infosystems.statefin.service.AuthService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = {
+        "app.login.rate-limit.max-attempts-per-address=20",
+        "app.login.rate-limit.max-failures-per-username=100",
+        "app.login.lockout.max-failures=3"
+})
+@ActiveProfiles("test")
+@DirtiesContext
+class LoginAttemptServiceTest {
+
+    @Autowired
+    private LoginAttemptService loginAttemptService;
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void beforeAttempt_RejectsAddressOverItsLimit() {
+        // Given
+        IntStream.range(0, 20).forEach(i -> loginAttemptService.beforeAttempt("user" + i, "10.0.0.1"));
+
+        // When / Then
+        assertThatThrownBy(() -> loginAttemptService.beforeAttempt("another", "10.0.0.1"))
+                .isInstanceOf(TooManyRequestsException.class);
+        loginAttemptService.beforeAttempt("another", "10.0.0.2");
+    }
+
+    @Test
+    void beforeAttempt_ReservesUsernameSlotUntilTheLoginSucceeds() {
+        // Given - as many attempts in flight as the username allows failures, none of them finished
+        LoginAttemptService service = new LoginAttemptService(userRepository, Duration.ofMinutes(5), 50, 3, 1000,
+                false, 10, Duration.ofMinutes(15));
+        IntStream.range(0, 3).forEach(i -> service.beforeAttempt("TestUser", "10.0.2." + i));
+
+        // When / Then
+        assertThatThrownBy(() -> service.beforeAttempt("testuser", "10.0.2.9"))
+                .isInstanceOf(TooManyRequestsException.class);
+        service.loginSucceeded(new UserPrincipal(2L, "testuser", "testuser@test.com", "password", true, 0L, null,
+                List.of()));
+        service.beforeAttempt("testuser", "10.0.2.9");
+    }
+
+    @Test
+    void login_LocksAccountAfterConsecutiveFailures() {
+        // Given
+        for (int i = 0; i < 3; i++) {
+            assertThatThrownBy(() -> authService.login(new LoginRequest("testmanager", "wrong"), "10.0.1.1"))
+                    .isInstanceOf(AuthenticationException.class);
+        }
+
+        // When / Then - even the right password is refused while the lock lasts
+        assertThatThrownBy(() -> authService.login(new LoginRequest("testmanager", "TestManager123!"), "10.0.1.1"))
+                .isInstanceOf(AuthenticationException.class);
+        assertThat(userRepository.findByUsername("testmanager").orElseThrow().getLockedUntil()).isNotNull();
+        assertThat(authService.login(new LoginRequest("testuser", "TestUser123!"), "10.0.1.1").getAccessToken())
+                .isNotBlank();
+    }
+
+    @Test
+    void loginFailed_RestartsCountOnceLockHasExpired() {
+        // Given - an account whose lock ran out after the maximum number of failures
+        userRepository.save(User.builder()
+                .username("expiredlock")
+                .email("expiredlock@test.com")
+                .password("password")
+                .firstName("Expired")
+                .lastName("Lock")
+                .active(true)
+                .failedLoginAttempts(3)
+                .lockedUntil(LocalDateTime.now().minusMinutes(1))
+                .build());
+
+        // When
+        loginAttemptService.loginFailed("expiredlock");
+
+        // Then - a single new failure neither continues the old run nor locks the account again
+        User user = userRepository.findByUsername("expiredlock").orElseThrow();
+        assertThat(user.getFailedLoginAttempts()).isEqualTo(1);
+        assertThat(user.getLockedUntil()).isNull();
+    }
+
+}
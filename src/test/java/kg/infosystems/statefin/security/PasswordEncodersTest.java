@@ -0,0 +1,46 @@
+package kg.infosystems.statefin.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PasswordEncodersTest {
+
+    @Test
+    void delegating_MatchesLegacyHashAndRequestsUpgrade() {
+        // Given
+        PasswordEncoder passwordEncoder = PasswordEncoders.delegating(PasswordEncoders.BCRYPT, 5);
+        String legacyHash = new BCryptPasswordEncoder(4).encode("Password123!");
+
+        // When
+        String upgradedHash = passwordEncoder.encode("Password123!");
+
+        // Then
+        assertThat(passwordEncoder.matches("Password123!", legacyHash)).isTrue();
+        assertThat(passwordEncoder.upgradeEncoding(legacyHash)).isTrue();
+        assertThat(upgradedHash).startsWith("{bcrypt}$2a$05$");
+        assertThat(passwordEncoder.upgradeEncoding(upgradedHash)).isFalse();
+    }
+
+    @Test
+    void delegating_WeakerBCryptStrengthIsUpgraded() {
+        // Given
+        String weakHash = PasswordEncoders.delegating(PasswordEncoders.BCRYPT, 4).encode("Password123!");
+        PasswordEncoder passwordEncoder = PasswordEncoders.delegating(PasswordEncoders.BCRYPT, 5);
+
+        // Then
+        assertThat(passwordEncoder.matches("Password123!", weakHash)).isTrue();
+        assertThat(passwordEncoder.upgradeEncoding(weakHash)).isTrue();
+    }
+
+    @Test
+    void calibrateBCryptStrength_StaysWithinBounds() {
+        assertThat(PasswordEncoders.calibrateBCryptStrength(Duration.ZERO, 4, 8)).isEqualTo(4);
+        assertThat(PasswordEncoders.calibrateBCryptStrength(Duration.ofHours(1), 4, 8)).isEqualTo(8);
+    }
+
+}
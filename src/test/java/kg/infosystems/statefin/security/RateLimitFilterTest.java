@@ -0,0 +1,97 @@
+package kg.infosystems.statefin.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import kg.infosystems.statefin.dto.request.LoginRequest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "app.rate-limit.requests-per-second=0.01",
+        "app.rate-limit.burst=3",
+        "app.rate-limit.endpoints=/api/reports/**=0.01:1"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@DirtiesContext
+class RateLimitFilterTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void callerOverItsQuotaIsThrottledWithoutAffectingOthers() throws Exception {
+        // Given - each login is one anonymous request from the test client's address
+        double rejectedBefore = rejectedCount("default");
+        String userToken = login("testuser", "TestUser123!");
+        String adminToken = login("testadmin", "TestAdmin123!");
+
+        // When - the user spends its whole burst
+        for (int i = 0; i < 3; i++) {
+            mockMvc.perform(get("/api/users/me").header(HttpHeaders.AUTHORIZATION, "Bearer " + userToken))
+                    .andExpect(status().isOk());
+        }
+
+        // Then
+        mockMvc.perform(get("/api/users/me").header(HttpHeaders.AUTHORIZATION, "Bearer " + userToken))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().exists(HttpHeaders.RETRY_AFTER))
+                .andExpect(jsonPath("$.success").value(false));
+        mockMvc.perform(get("/api/users/me").header(HttpHeaders.AUTHORIZATION, "Bearer " + adminToken))
+                .andExpect(status().isOk());
+        assertThat(rejectedCount("default") - rejectedBefore).isEqualTo(1.0);
+    }
+
+    @Test
+    void requestTurnedAwayByDefaultQuotaIsNotChargedToEndpointQuota() throws Exception {
+        // Given - the caller's default quota is spent while its endpoint quota is untouched
+        String managerToken = login("testmanager", "TestManager123!");
+        for (int i = 0; i < 3; i++) {
+            mockMvc.perform(get("/api/users/me").header(HttpHeaders.AUTHORIZATION, "Bearer " + managerToken))
+                    .andExpect(status().isOk());
+        }
+
+        // When
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(get("/api/reports/daily").header(HttpHeaders.AUTHORIZATION, "Bearer " + managerToken))
+                    .andExpect(status().isTooManyRequests());
+        }
+
+        // Then - both were rejected by the default quota, so the endpoint token was given back each time
+        assertThat(rejectedCount("/api/reports/**")).isZero();
+    }
+
+    private double rejectedCount(String quota) {
+        return meterRegistry.get("rate.limit.requests").tags("quota", quota, "outcome", "rejected").counter().count();
+    }
+
+    private String login(String username, String password) throws Exception {
+        String body = mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new LoginRequest(username, password))))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body).path("data").path("accessToken").asText();
+    }
+
+}
@@ -0,0 +1,169 @@
+package kg.infosystems.statefin.security;
+
+import kg.infosystems.statefin.entity.Role;
+import kg.infosystems.statefin.repository.RoleRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class RoleAuthorityIndexTest {
+
+    private static final Long MANAGER = 10L;
+    private static final Long AUDITOR = 11L;
+
+    private final AtomicLong nanos = new AtomicLong();
+    private final Map<Long, List<RoleRepository.PermissionGrant>> grants = new HashMap<>();
+    private final Map<Long, Long> versions = new HashMap<>();
+    private RoleAuthorityIndex index;
+
+    @BeforeEach
+    void setUp() {
+        RoleRepository roleRepository = mock(RoleRepository.class);
+        when(roleRepository.findPermissionGrantsByRoleId(anyLong()))
+                .thenAnswer(invocation -> grants.getOrDefault(invocation.<Long>getArgument(0), List.of()));
+        when(roleRepository.findAuthzVersionById(anyLong()))
+                .thenAnswer(invocation -> Optional.ofNullable(versions.get(invocation.<Long>getArgument(0))));
+        index = new RoleAuthorityIndex(roleRepository, 100, Duration.ofMinutes(10), Duration.ofSeconds(60), nanos::get);
+
+        grant(MANAGER, new Grant(1L, "USER_READ", true), new Grant(2L, "USER_WRITE", true),
+                new Grant(3L, "USER_DELETE", false));
+        grant(AUDITOR, new Grant(1L, "USER_READ", true));
+    }
+
+    @Test
+    void authoritiesOf_UnionsActivePermissionsOfAllRoles() {
+        // When
+        RoleAuthorityIndex.RoleAuthorities granted = index.authoritiesOf(List.of(role(MANAGER), role(AUDITOR)));
+
+        // Then
+        assertThat(granted.authorities()).extracting(GrantedAuthority::getAuthority)
+                .containsExactlyInAnyOrder("USER_READ", "USER_WRITE");
+        assertThat(granted.bits().contains(1)).isTrue();
+        assertThat(granted.bits().contains(2)).isTrue();
+        assertThat(granted.bits().contains(3)).isFalse();
+    }
+
+    @Test
+    void authoritiesOf_ReusesPrecomputedRoleEntryAndInternedAuthorities() {
+        // When
+        RoleAuthorityIndex.RoleAuthorities first = index.authoritiesOf(List.of(role(MANAGER)));
+        RoleAuthorityIndex.RoleAuthorities second = index.authoritiesOf(List.of(role(MANAGER)));
+        RoleAuthorityIndex.RoleAuthorities auditorOnly = index.authoritiesOf(List.of(role(AUDITOR)));
+
+        // Then
+        assertThat(second).isSameAs(first);
+        GrantedAuthority managerRead = first.authorities().stream()
+                .filter(authority -> authority.getAuthority().equals("USER_READ"))
+                .findFirst().orElseThrow();
+        assertThat(auditorOnly.authorities().get(0)).isSameAs(managerRead);
+    }
+
+    @Test
+    void roleChanged_RebuildsOnlyThatRole() {
+        // Given
+        RoleAuthorityIndex.RoleAuthorities auditorBefore = index.authoritiesOf(List.of(role(AUDITOR)));
+        index.authoritiesOf(List.of(role(MANAGER)));
+        grant(MANAGER, new Grant(1L, "USER_READ", true));
+
+        // When
+        index.roleChanged(MANAGER);
+        RoleAuthorityIndex.RoleAuthorities managerAfter = index.authoritiesOf(List.of(role(MANAGER)));
+
+        // Then
+        assertThat(managerAfter.authorities()).extracting(GrantedAuthority::getAuthority).containsExactly("USER_READ");
+        assertThat(index.authoritiesOf(List.of(role(AUDITOR)))).isSameAs(auditorBefore);
+    }
+
+    @Test
+    void permissionChanged_EvictsRolesHoldingThePermission() {
+        // Given
+        RoleAuthorityIndex.RoleAuthorities auditorBefore = index.authoritiesOf(List.of(role(AUDITOR)));
+        index.authoritiesOf(List.of(role(MANAGER)));
+        grant(MANAGER, new Grant(1L, "USER_READ", true), new Grant(2L, "USER_WRITE", true),
+                new Grant(3L, "USER_DELETE", true));
+
+        // When
+        index.permissionChanged(3L);
+
+        // Then
+        assertThat(index.authoritiesOf(List.of(role(MANAGER))).authorities()).extracting(GrantedAuthority::getAuthority)
+                .containsExactlyInAnyOrder("USER_READ", "USER_WRITE", "USER_DELETE");
+        assertThat(index.authoritiesOf(List.of(role(AUDITOR)))).isSameAs(auditorBefore);
+    }
+
+    @Test
+    void authoritiesOf_PicksUpChangeFromAnotherInstanceOnceVersionIsReread() {
+        // Given
+        RoleAuthorityIndex.RoleAuthorities before = index.authoritiesOf(List.of(role(MANAGER)));
+
+        // When - another instance revokes USER_WRITE and bumps the role's version, without local callbacks
+        grant(MANAGER, new Grant(1L, "USER_READ", true));
+
+        // Then - served from the entry until the cached version expires, then rebuilt
+        nanos.addAndGet(Duration.ofSeconds(30).toNanos());
+        assertThat(index.authoritiesOf(List.of(role(MANAGER)))).isSameAs(before);
+        nanos.addAndGet(Duration.ofSeconds(31).toNanos());
+        assertThat(index.authoritiesOf(List.of(role(MANAGER))).authorities()).extracting(GrantedAuthority::getAuthority)
+                .containsExactly("USER_READ");
+    }
+
+    @Test
+    void authoritiesOf_RebuildsRoleEntryOnceItExpires() {
+        // Given
+        RoleAuthorityIndex.RoleAuthorities before = index.authoritiesOf(List.of(role(MANAGER)));
+        nanos.addAndGet(Duration.ofMinutes(9).toNanos());
+        assertThat(index.authoritiesOf(List.of(role(MANAGER)))).isSameAs(before);
+
+        // When
+        nanos.addAndGet(Duration.ofMinutes(2).toNanos());
+        RoleAuthorityIndex.RoleAuthorities after = index.authoritiesOf(List.of(role(MANAGER)));
+
+        // Then
+        assertThat(after).isNotSameAs(before);
+        assertThat(after.authorities()).extracting(GrantedAuthority::getAuthority)
+                .containsExactlyInAnyOrder("USER_READ", "USER_WRITE");
+    }
+
+    /**
+     * Replaces the role's grants and bumps its version, as every RBAC change does.
+     */
+    private void grant(Long roleId, Grant... roleGrants) {
+        grants.put(roleId, List.of(roleGrants));
+        versions.merge(roleId, 0L, (version, ignored) -> version + 1);
+    }
+
+    private static Role role(Long id) {
+        return Role.builder().id(id).active(true).build();
+    }
+
+    private record Grant(Long id, String name, Boolean active) implements RoleRepository.PermissionGrant {
+
+        @Override
+        public Long getId() {
+            return id;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public Boolean getActive() {
+            return active;
+        }
+    }
+
+}
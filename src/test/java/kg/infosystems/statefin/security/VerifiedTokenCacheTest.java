@@ -0,0 +1,100 @@
+package kg.infosystems.statefin.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import kg.infosystems.statefin.entity.Permission;
+import kg.infosystems.statefin.repository.PermissionRepository;
+import kg.infosystems.statefin.security.jwt.JwtKeyManager;
+import kg.infosystems.statefin.security.jwt.JwtUtils;
+import kg.infosystems.statefin.security.jwt.VerifiedTokenCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class VerifiedTokenCacheTest {
+
+    private JwtUtils jwtUtils;
+    private SimpleMeterRegistry meterRegistry;
+    private VerifiedTokenCache verifiedTokenCache;
+    private Authentication authentication;
+
+    @BeforeEach
+    void setUp() {
+        PermissionRepository permissionRepository = mock(PermissionRepository.class);
+        when(permissionRepository.findAll()).thenReturn(List.of(
+                Permission.builder().id(1L).name("USER_READ").resource("USER").action("READ").active(true).build()));
+        jwtUtils = spy(new JwtUtils(new PermissionIndex(permissionRepository, Duration.ofSeconds(30)), new JwtKeyManager("HS256", "testSecretKeyThatIsLongEnoughForHS256Algorithm", Duration.ZERO, false, "", "", "",
+                86400000L, 604800000L)));
+        ReflectionTestUtils.setField(jwtUtils, "jwtExpirationMs", 86400000L);
+        ReflectionTestUtils.setField(jwtUtils, "refreshExpirationMs", 604800000L);
+        jwtUtils.init();
+
+        meterRegistry = new SimpleMeterRegistry();
+        verifiedTokenCache = new VerifiedTokenCache(jwtUtils, meterRegistry, true, 100);
+
+        UserPrincipal userPrincipal = new UserPrincipal(
+                1L,
+                "testuser",
+                "test@example.com",
+                "password",
+                true,
+                0L,
+                null,
+                List.of(new SimpleGrantedAuthority("USER_READ"))
+        );
+        authentication = new UsernamePasswordAuthenticationToken(userPrincipal, null, userPrincipal.getAuthorities());
+    }
+
+    @Test
+    void get_RepeatedTokenIsVerifiedOnce() {
+        // Given
+        String token = jwtUtils.generateJwtToken(authentication);
+
+        // When
+        VerifiedTokenCache.VerifiedToken first = verifiedTokenCache.get(token);
+        VerifiedTokenCache.VerifiedToken second = verifiedTokenCache.get(token);
+
+        // Then
+        assertThat(second).isSameAs(first);
+        assertThat(second.getPrincipal().getUsername()).isEqualTo("testuser");
+        verify(jwtUtils, times(1)).parseJwtToken(token);
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "jwtVerifiedTokens").tag("result", "hit")
+                .functionCounter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void get_RefreshTokenHasNoPrincipal() {
+        // Given
+        String refreshToken = jwtUtils.generateRefreshToken(authentication, "family-1", "token-1", Instant.now().plus(Duration.ofDays(7)));
+
+        // When
+        VerifiedTokenCache.VerifiedToken verifiedToken = verifiedTokenCache.get(refreshToken);
+
+        // Then
+        assertThat(verifiedToken.getClaims().isRefreshToken()).isTrue();
+        assertThat(verifiedToken.getPrincipal()).isNull();
+    }
+
+    @Test
+    void get_InvalidTokenIsNotCached() {
+        assertThatThrownBy(() -> verifiedTokenCache.get("invalid.jwt.token"))
+                .isInstanceOf(io.jsonwebtoken.JwtException.class);
+        assertThatThrownBy(() -> verifiedTokenCache.get("invalid.jwt.token"))
+                .isInstanceOf(io.jsonwebtoken.JwtException.class);
+    }
+
+}
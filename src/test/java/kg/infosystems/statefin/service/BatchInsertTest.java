@@ -0,0 +1,70 @@
+package kg.infosystems.statefin.service;
+
+import jakarta.persistence.EntityManagerFactory;
+import kg.infosystems.statefin.entity.Role;
+import kg.infosystems.statefin.entity.User;
+import kg.infosystems.statefin.repository.RoleRepository;
+import kg.infosystems.statefin.repository.UserRepository;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+@DirtiesContext
+class BatchInsertTest {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void saveAll_InsertsUsersAndRolesInBatches() {
+        // Given
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        List<User> users = new ArrayList<>();
+
+        // When
+        transactionTemplate.executeWithoutResult(status -> {
+            Role role = roleRepository.findByName("USER").orElseThrow();
+            for (int i = 0; i < 120; i++) {
+                User user = User.builder()
+                        .username("batch" + i)
+                        .email("batch" + i + "@test.com")
+                        .password("password")
+                        .firstName("Batch")
+                        .lastName("User")
+                        .active(true)
+                        .build();
+                user.addRole(role);
+                users.add(user);
+            }
+            statistics.clear();
+            userRepository.saveAll(users);
+        });
+
+        // Then - three id blocks, then the users and user_roles rows in batches of 50
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(120);
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(12);
+        assertThat(users).extracting(User::getId).doesNotHaveDuplicates();
+    }
+
+}
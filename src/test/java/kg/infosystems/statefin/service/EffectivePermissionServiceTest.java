@@ -0,0 +1,104 @@
+package kg.infosystems.statefin.service;
+
+import kg.infosystems.statefin.dto.request.UserRegistrationRequest;
+import kg.infosystems.statefin.dto.response.PermissionResponse;
+import kg.infosystems.statefin.dto.response.UserResponse;
+import kg.infosystems.statefin.entity.UserEffectivePermission;
+import kg.infosystems.statefin.repository.PermissionRepository;
+import kg.infosystems.statefin.repository.RoleRepository;
+import kg.infosystems.statefin.repository.UserEffectivePermissionRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@DirtiesContext
+class EffectivePermissionServiceTest {
+
+    @Autowired
+    private EffectivePermissionService effectivePermissionService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private RoleService roleService;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private PermissionRepository permissionRepository;
+
+    @Autowired
+    private UserEffectivePermissionRepository userEffectivePermissionRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void assignmentsAreAppliedIncrementally() {
+        // Given
+        Long userId = userService.createUser(
+                new UserRegistrationRequest("effective", "effective@test.com", "Password123!", "Effective", "User")).getId();
+        Long managerRoleId = roleRepository.findByName("MANAGER").orElseThrow().getId();
+        Long adminRoleId = roleRepository.findByName("ADMIN").orElseThrow().getId();
+        Long roleReadId = permissionRepository.findByName("ROLE_READ").orElseThrow().getId();
+        assertThat(userService.getEffectivePermissions(userId)).isEmpty();
+
+        // When
+        userService.assignRoleToUser(userId, managerRoleId);
+        userService.assignRoleToUser(userId, adminRoleId);
+        roleService.assignPermissionToRole(managerRoleId, roleReadId);
+        userService.removeRoleFromUser(userId, adminRoleId);
+
+        // Then - the manager role still grants its own permissions plus ROLE_READ
+        assertThat(userService.getEffectivePermissions(userId)).extracting(PermissionResponse::getName)
+                .containsExactly("ROLE_READ", "USER_READ", "USER_WRITE");
+        assertThat(userService.scrollUsersWithPermission(roleReadId, null, 100).getContent())
+                .extracting(UserResponse::getUsername)
+                .contains("effective", "testmanager");
+
+        // When
+        roleService.removePermissionFromRole(managerRoleId, roleReadId);
+
+        // Then
+        assertThat(userService.scrollUsersWithPermission(roleReadId, null, 100).getContent())
+                .extracting(UserResponse::getUsername)
+                .doesNotContain("effective", "testmanager");
+    }
+
+    @Test
+    void rebuild_RepairsDriftBackToIncrementallyMaintainedRows() {
+        // Given - one row lost and one stray row added behind the services' backs
+        List<UserEffectivePermission> maintained = userEffectivePermissionRepository.findAll();
+        UserEffectivePermission lost = maintained.get(0);
+        Long strayPermissionId = permissionRepository.findByName("ROLE_DELETE").orElseThrow().getId();
+        Long strayUserId = maintained.stream().map(UserEffectivePermission::getUserId)
+                .filter(userId -> maintained.stream().noneMatch(row ->
+                        row.getUserId().equals(userId) && row.getPermissionId().equals(strayPermissionId)))
+                .findFirst().orElseThrow();
+        jdbcTemplate.update("DELETE FROM user_effective_permissions WHERE user_id = ? AND permission_id = ?",
+                lost.getUserId(), lost.getPermissionId());
+        jdbcTemplate.update("INSERT INTO user_effective_permissions (user_id, permission_id) VALUES (?, ?)",
+                strayUserId, strayPermissionId);
+
+        // When
+        effectivePermissionService.rebuild();
+
+        // Then
+        assertThat(userEffectivePermissionRepository.findAll())
+                .usingRecursiveFieldByFieldElementComparator()
+                .containsExactlyInAnyOrderElementsOf(maintained)
+                .isNotEmpty();
+    }
+
+}
@@ -0,0 +1,112 @@
+package kg.infosystems.statefin.service;
+
+import jakarta.persistence.EntityManagerFactory;
+import kg.infosystems.statefin.dto.response.PagedResponse;
+import kg.infosystems.statefin.dto.response.UserResponse;
+import kg.infosystems.statefin.entity.Role;
+import kg.infosystems.statefin.entity.User;
+import kg.infosystems.statefin.repository.RoleRepository;
+import kg.infosystems.statefin.repository.UserRepository;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@DirtiesContext
+class PagedQueryCountTest {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private RoleService roleService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeAll
+    void seedUsers() {
+        transactionTemplate.executeWithoutResult(status -> {
+            List<Role> roles = roleRepository.findAll();
+            for (int i = 0; i < 40; i++) {
+                User user = User.builder()
+                        .username("paged" + i)
+                        .email("paged" + i + "@test.com")
+                        .password("password")
+                        .firstName("Paged")
+                        .lastName("User")
+                        .active(true)
+                        .build();
+                user.addRole(roles.get(i % roles.size()));
+                user.addRole(roles.get((i + 1) % roles.size()));
+                userRepository.save(user);
+            }
+        });
+    }
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void getAllUsers_QueryCountDoesNotGrowWithPageSize() {
+        // When
+        long smallPage = countStatements(() -> userService.getAllUsers(PageRequest.of(0, 5, Sort.by("username"))));
+        long largePage = countStatements(() -> {
+            PagedResponse<UserResponse> page = userService.getAllUsers(PageRequest.of(0, 40, Sort.by("username")));
+            assertThat(page.getContent()).hasSize(40);
+            assertThat(page.getContent()).extracting(UserResponse::getUsername).isSorted();
+            assertThat(page.getContent()).allSatisfy(user -> assertThat(user.getRoles()).isNotEmpty());
+        });
+
+        // Then
+        assertThat(largePage).isEqualTo(smallPage);
+        assertThat(largePage).isLessThanOrEqualTo(4);
+    }
+
+    @Test
+    void getAllRoles_QueryCountDoesNotGrowWithPageSize() {
+        // When
+        long smallPage = countStatements(() -> roleService.getAllRoles(PageRequest.of(0, 1)));
+        long largePage = countStatements(() -> roleService.getAllRoles(PageRequest.of(0, 20)));
+
+        // Then - a short last page lets Spring Data skip the count query
+        assertThat(smallPage).isLessThanOrEqualTo(3);
+        assertThat(largePage).isLessThanOrEqualTo(3);
+    }
+
+    private long countStatements(Runnable action) {
+        statistics.clear();
+        action.run();
+        return statistics.getPrepareStatementCount();
+    }
+
+}
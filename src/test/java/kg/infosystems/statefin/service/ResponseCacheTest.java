@@ -0,0 +1,91 @@
+package kg.infosystems.statefin.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import kg.infosystems.statefin.dto.request.UserUpdateRequest;
+import kg.infosystems.statefin.dto.response.PermissionResponse;
+import kg.infosystems.statefin.dto.response.UserResponse;
+import kg.infosystems.statefin.repository.PermissionRepository;
+import kg.infosystems.statefin.repository.RoleRepository;
+import kg.infosystems.statefin.repository.UserRepository;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+@DirtiesContext
+class ResponseCacheTest {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private RoleService roleService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private PermissionRepository permissionRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void getUserById_IsServedFromCacheUntilTheUserChanges() {
+        // Given
+        Long userId = userRepository.findByUsername("testuser").orElseThrow().getId();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        userService.getUserById(userId);
+        statistics.clear();
+
+        // When
+        UserResponse cached = userService.getUserById(userId);
+
+        // Then - no statement reaches the database and the hit is counted
+        assertThat(cached.getUsername()).isEqualTo("testuser");
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+        assertThat(meterRegistry.get("cache.gets").tags("cache", "users-by-id", "result", "hit")
+                .functionCounter().count()).isPositive();
+
+        // When
+        userService.updateUser(userId, new UserUpdateRequest(null, "Renamed", null, null));
+
+        // Then
+        assertThat(userService.getUserById(userId).getFirstName()).isEqualTo("Renamed");
+        assertThat(userService.getUserByUsername("TESTUSER").getFirstName()).isEqualTo("Renamed");
+    }
+
+    @Test
+    void rolePermissionChange_EvictsCachedRoleAndUserResponses() {
+        // Given
+        Long managerRoleId = roleRepository.findByName("MANAGER").orElseThrow().getId();
+        Long userDeleteId = permissionRepository.findByName("USER_DELETE").orElseThrow().getId();
+        assertThat(roleService.getRoleById(managerRoleId).getPermissions()).hasSize(2);
+        assertThat(userService.getUserByUsername("testmanager").getRoles().iterator().next().getPermissions()).hasSize(2);
+
+        // When
+        roleService.assignPermissionToRole(managerRoleId, userDeleteId);
+
+        // Then
+        assertThat(roleService.getRoleById(managerRoleId).getPermissions())
+                .extracting(PermissionResponse::getName)
+                .contains("USER_DELETE");
+        assertThat(userService.getUserByUsername("testmanager").getRoles().iterator().next().getPermissions())
+                .hasSize(3);
+    }
+
+}
@@ -0,0 +1,106 @@
+package kg.infosystems.statefin.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import kg.infosystems.statefin.repository.PermissionRepository;
+import kg.infosystems.statefin.repository.RoleRepository;
+import kg.infosystems.statefin.security.CustomUserDetailsService;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+@DirtiesContext
+class SecondLevelCacheTest {
+
+    @Autowired
+    private CustomUserDetailsService userDetailsService;
+
+    @Autowired
+    private RoleService roleService;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private PermissionRepository permissionRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void loadUserByUsername_OnlyQueriesUserAndRoles() {
+        // Given
+        userDetailsService.loadUserByUsername("testadmin");
+        statistics.clear();
+
+        // When
+        UserDetails admin = userDetailsService.loadUserByUsername("testadmin");
+
+        // Then - only the user and role join reaches the database
+        assertThat(admin.getAuthorities()).hasSize(10);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void rolePermissions_AreServedFromCache() {
+        // Given
+        transactionTemplate.executeWithoutResult(status ->
+                roleRepository.findByName("ADMIN").orElseThrow().getPermissions().size());
+        statistics.clear();
+
+        // When
+        int permissions = transactionTemplate.execute(status ->
+                roleRepository.findByName("ADMIN").orElseThrow().getPermissions().size());
+
+        // Then - the role row is queried, its permission collection and entities come from the cache
+        assertThat(permissions).isEqualTo(10);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(statistics.getSecondLevelCacheHitCount()).isPositive();
+        assertThat(meterRegistry.get("hibernate.second.level.cache.hit.ratio").tag("region", "role-permissions")
+                .gauge().value()).isPositive();
+    }
+
+    @Test
+    void assignPermissionToRole_IsVisibleToCachedReads() {
+        // Given
+        Long managerRoleId = roleRepository.findByName("MANAGER").orElseThrow().getId();
+        Long userDeleteId = permissionRepository.findByName("USER_DELETE").orElseThrow().getId();
+        assertThat(userDetailsService.loadUserByUsername("testmanager").getAuthorities())
+                .extracting(GrantedAuthority::getAuthority)
+                .containsExactlyInAnyOrder("USER_READ", "USER_WRITE");
+
+        // When
+        roleService.assignPermissionToRole(managerRoleId, userDeleteId);
+
+        // Then
+        assertThat(userDetailsService.loadUserByUsername("testmanager").getAuthorities())
+                .extracting(GrantedAuthority::getAuthority)
+                .containsExactlyInAnyOrder("USER_READ", "USER_WRITE", "USER_DELETE");
+    }
+
+}
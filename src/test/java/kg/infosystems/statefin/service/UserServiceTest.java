@@ -9,14 +9,19 @@ import kg.infosystems.statefin.exception.ResourceNotFoundException;
 import kg.infosystems.statefin.exception.UserAlreadyExistsException;
 import kg.infosystems.statefin.repository.RoleRepository;
 import kg.infosystems.statefin.repository.UserRepository;
+import kg.infosystems.statefin.security.AuthorizationVersionService;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import java.sql.SQLException;
+import java.util.Locale;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -37,6 +42,15 @@ class UserServiceTest {
     @Mock
     private PasswordEncoder passwordEncoder;
 
+    @Mock
+    private AuthorizationVersionService authorizationVersionService;
+
+    @Mock
+    private EffectivePermissionService effectivePermissionService;
+
+    @Mock
+    private ResponseCacheEvictor responseCacheEvictor;
+
     @InjectMocks
     private UserService userService;
 
@@ -71,11 +85,9 @@ class UserServiceTest {
     @Test
     void createUser_Success() {
         // Given
-        when(userRepository.existsByUsername(anyString())).thenReturn(false);
-        when(userRepository.existsByEmail(anyString())).thenReturn(false);
         when(passwordEncoder.encode(anyString())).thenReturn("encodedPassword");
         when(roleRepository.findByName("USER")).thenReturn(Optional.of(userRole));
-        when(userRepository.save(any(User.class))).thenReturn(user);
+        when(userRepository.saveAndFlush(any(User.class))).thenReturn(user);
 
         // When
         UserResponse result = userService.createUser(registrationRequest);
@@ -84,34 +96,37 @@ class UserServiceTest {
         assertThat(result).isNotNull();
         assertThat(result.getUsername()).isEqualTo("testuser");
         assertThat(result.getEmail()).isEqualTo("test@example.com");
-        verify(userRepository).save(any(User.class));
+        verify(userRepository).saveAndFlush(any(User.class));
     }
 
     @Test
     void createUser_UsernameAlreadyExists() {
         // Given
-        when(userRepository.existsByUsername(anyString())).thenReturn(true);
+        when(passwordEncoder.encode(anyString())).thenReturn("encodedPassword");
+        when(roleRepository.findByName("USER")).thenReturn(Optional.of(userRole));
+        when(userRepository.saveAndFlush(any(User.class))).thenThrow(uniqueViolation(User.USERNAME_CONSTRAINT));
 
         // When/Then
         assertThatThrownBy(() -> userService.createUser(registrationRequest))
                 .isInstanceOf(UserAlreadyExistsException.class)
                 .hasMessage("Username is already taken");
 
-        verify(userRepository, never()).save(any(User.class));
+        verify(effectivePermissionService, never()).roleAssigned(any(), any());
     }
 
     @Test
     void createUser_EmailAlreadyExists() {
         // Given
-        when(userRepository.existsByUsername(anyString())).thenReturn(false);
-        when(userRepository.existsByEmail(anyString())).thenReturn(true);
+        when(passwordEncoder.encode(anyString())).thenReturn("encodedPassword");
+        when(roleRepository.findByName("USER")).thenReturn(Optional.of(userRole));
+        when(userRepository.saveAndFlush(any(User.class))).thenThrow(uniqueViolation(User.EMAIL_CONSTRAINT));
 
         // When/Then
         assertThatThrownBy(() -> userService.createUser(registrationRequest))
                 .isInstanceOf(UserAlreadyExistsException.class)
                 .hasMessage("Email is already registered");
 
-        verify(userRepository, never()).save(any(User.class));
+        verify(effectivePermissionService, never()).roleAssigned(any(), any());
     }
 
     @Test
@@ -144,15 +159,14 @@ class UserServiceTest {
         // Given
         UserUpdateRequest updateRequest = new UserUpdateRequest("newemail@example.com", "NewFirst", "NewLast", true);
         when(userRepository.findById(1L)).thenReturn(Optional.of(user));
-        when(userRepository.existsByEmail("newemail@example.com")).thenReturn(false);
-        when(userRepository.save(any(User.class))).thenReturn(user);
+        when(userRepository.saveAndFlush(any(User.class))).thenReturn(user);
 
         // When
         UserResponse result = userService.updateUser(1L, updateRequest);
 
         // Then
         assertThat(result).isNotNull();
-        verify(userRepository).save(any(User.class));
+        verify(userRepository).saveAndFlush(any(User.class));
     }
 
     @Test
@@ -166,6 +180,33 @@ class UserServiceTest {
 
         // Then
         verify(userRepository).save(any(User.class));
+        verify(authorizationVersionService).userChanged(user);
+    }
+
+    @Test
+    void assignRoleToUser_BumpsAuthorizationVersion() {
+        // Given
+        Role managerRole = Role.builder()
+                .id(2L)
+                .name("MANAGER")
+                .active(true)
+                .build();
+        when(userRepository.findByIdWithRoles(1L)).thenReturn(Optional.of(user));
+        when(roleRepository.findById(2L)).thenReturn(Optional.of(managerRole));
+        when(userRepository.save(any(User.class))).thenReturn(user);
+
+        // When
+        userService.assignRoleToUser(1L, 2L);
+
+        // Then
+        verify(authorizationVersionService).userChanged(user);
+    }
+
+    private static DataIntegrityViolationException uniqueViolation(String constraintName) {
+        // H2 and PostgreSQL report the constraint in different forms; only the name itself is relied on
+        String reported = "PUBLIC." + constraintName.toUpperCase(Locale.ROOT) + "_INDEX_4";
+        return new DataIntegrityViolationException("could not execute statement",
+                new ConstraintViolationException("could not execute statement", new SQLException(), reported));
     }
 
-}
\ No newline at end of file
+}